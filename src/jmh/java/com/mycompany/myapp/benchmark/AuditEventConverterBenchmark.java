@@ -0,0 +1,42 @@
+package com.mycompany.myapp.benchmark;
+
+import com.mycompany.myapp.config.audit.AuditEventConverter;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversion of the data of the audit events, done on every authentication success or failure.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class AuditEventConverterBenchmark {
+
+    private AuditEventConverter auditEventConverter;
+
+    private Map<String, Object> data;
+
+    @Setup
+    public void setup() {
+        auditEventConverter = new AuditEventConverter();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("192.168.0.1");
+        data = new HashMap<>();
+        data.put("details", new WebAuthenticationDetails(request));
+        data.put("type", "org.springframework.security.authentication.BadCredentialsException");
+        data.put("message", "Bad credentials");
+    }
+
+    @Benchmark
+    public Map<String, String> convertDataToStrings() {
+        return auditEventConverter.convertDataToStrings(data);
+    }
+}
@@ -0,0 +1,91 @@
+package com.mycompany.myapp.benchmark;
+
+import com.mycompany.myapp.domain.Book;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a {@link HashSet} of the saved books of a prolific author, hashed by id, with the same set under
+ * the former constant hash code, which puts all the books in the same bucket.
+ * <p>
+ * Each invocation adds all the books, then looks all of them up. As the constant hash code makes the set
+ * quadratic, invocations are timed one by one.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+public class EntityHashingBenchmark {
+
+    @Param({"1000", "50000"})
+    private int books;
+
+    private List<Book> savedBooks;
+
+    private List<ConstantHashBook> constantHashBooks;
+
+    @Setup
+    public void setup() {
+        savedBooks = new ArrayList<>(books);
+        constantHashBooks = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            Book book = new Book().title("Book " + i);
+            book.setId(new ObjectId().toHexString());
+            savedBooks.add(book);
+            constantHashBooks.add(new ConstantHashBook(book));
+        }
+    }
+
+    @Benchmark
+    public void idHashedBooks(Blackhole blackhole) {
+        Set<Book> set = new HashSet<>();
+        for (Book book : savedBooks) {
+            set.add(book);
+        }
+        for (Book book : savedBooks) {
+            blackhole.consume(set.contains(book));
+        }
+    }
+
+    @Benchmark
+    public void constantHashedBooks(Blackhole blackhole) {
+        Set<ConstantHashBook> set = new HashSet<>();
+        for (ConstantHashBook book : constantHashBooks) {
+            set.add(book);
+        }
+        for (ConstantHashBook book : constantHashBooks) {
+            blackhole.consume(set.contains(book));
+        }
+    }
+
+    /**
+     * A book with the former constant hash code, and the equality of {@link Book}.
+     */
+    private static final class ConstantHashBook {
+
+        private final Book book;
+
+        private ConstantHashBook(Book book) {
+            this.book = book;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ConstantHashBook && book.equals(((ConstantHashBook) o).book);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.mycompany.myapp.benchmark;
+
+import com.mycompany.myapp.config.ElasticsearchConfiguration.CustomEntityMapper;
+import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.search.BookDocument;
+import com.mycompany.myapp.service.mapper.SearchDocumentMapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import io.searchbox.core.SearchResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the mapping of Elasticsearch documents through intermediate strings, as done by a plain
+ * {@link ObjectMapper}, with the {@link CustomEntityMapper}.
+ * <p>
+ * The search response is a page of book documents, as returned by the book search with facets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class EntityMapperBenchmark {
+
+    @Param({"20", "100"})
+    private int hits;
+
+    private ObjectMapper objectMapper;
+
+    private CustomEntityMapper entityMapper;
+
+    private SearchResult searchResult;
+
+    private BookDocument document;
+
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        entityMapper = new CustomEntityMapper(objectMapper);
+        SearchDocumentMapper searchDocumentMapper = new SearchDocumentMapper();
+        Author author = new Author().name("Jane Austen").birthDate(LocalDate.of(1775, 12, 16));
+        author.setId("5cc1c9c1a1b2c3d4e5f60001");
+        StringBuilder response = new StringBuilder("{\"took\":12,\"timed_out\":false,")
+            .append("\"_shards\":{\"total\":5,\"successful\":5,\"skipped\":0,\"failed\":0},")
+            .append("\"hits\":{\"total\":").append(hits * 10).append(",\"max_score\":1.0,\"hits\":[");
+        for (int i = 0; i < hits; i++) {
+            Book hit = new Book()
+                .title("Pride and Prejudice, volume " + i)
+                .description("It is a truth universally acknowledged, that a single man in possession of a good fortune, must be in want of a wife.")
+                .publicationDate(LocalDate.of(1813, 1, 28).plusDays(i))
+                .price(new BigDecimal("12.50").add(BigDecimal.valueOf(i)))
+                .name(author);
+            hit.setId(String.format("5cc1c9c1a1b2c3d4e5f6%04d", i));
+            document = searchDocumentMapper.bookToBookDocument(hit);
+            response.append(i == 0 ? "" : ",")
+                .append("{\"_index\":\"book\",\"_type\":\"book\",\"_id\":\"").append(hit.getId())
+                .append("\",\"_score\":1.0,\"_source\":").append(objectMapper.writeValueAsString(document)).append("}");
+        }
+        response.append("]},\"aggregations\":{\"top_authors\":{\"doc_count_error_upper_bound\":0,\"sum_other_doc_count\":0,")
+            .append("\"buckets\":[{\"key\":\"Jane Austen\",\"doc_count\":").append(hits * 10).append("}]}}}");
+
+        searchResult = new SearchResult(new Gson());
+        searchResult.setJsonString(response.toString());
+        searchResult.setJsonObject(new JsonParser().parse(response.toString()).getAsJsonObject());
+        searchResult.setPathToResult("hits/hits/_source");
+        searchResult.setSucceeded(true);
+        out = new ByteArrayOutputStream(4096);
+    }
+
+    @Benchmark
+    public void readHitsThroughStrings(Blackhole blackhole) throws IOException {
+        for (String source : searchResult.getSourceAsStringList()) {
+            blackhole.consume(objectMapper.readValue(source, BookDocument.class));
+        }
+    }
+
+    @Benchmark
+    public List<BookDocument> readHitsFromResponse() throws IOException {
+        return entityMapper.mapHits(searchResult.getJsonString(), BookDocument.class);
+    }
+
+    @Benchmark
+    public String writeDocumentWithObjectMapper() throws IOException {
+        return objectMapper.writeValueAsString(document);
+    }
+
+    @Benchmark
+    public String writeDocumentWithCachedWriter() throws IOException {
+        return entityMapper.mapToString(document);
+    }
+
+    @Benchmark
+    public int writeDocumentToStream() throws IOException {
+        out.reset();
+        entityMapper.writeTo(document, out);
+        return out.size();
+    }
+}
@@ -0,0 +1,82 @@
+package com.mycompany.myapp.benchmark;
+
+import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serialization of the pages of books and authors returned by the REST endpoints, with the
+ * modules registered by the {@link com.mycompany.myapp.config.JacksonConfiguration}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<Book> books;
+
+    private List<Author> authors;
+
+    private String booksJson;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new Jdk8Module())
+            .registerModule(new AfterburnerModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        books = new ArrayList<>(size);
+        authors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Author author = new Author().name("Author " + i).birthDate(LocalDate.of(1775, 12, 16).plusDays(i));
+            author.setId(String.format("5cc1c9c1a1b2c3d4e5f7%04d", i));
+            authors.add(author);
+            Book book = new Book()
+                .title("Pride and Prejudice, volume " + i)
+                .description("It is a truth universally acknowledged, that a single man in possession of a good fortune, must be in want of a wife.")
+                .publicationDate(LocalDate.of(1813, 1, 28).plusDays(i))
+                .price(new BigDecimal("12.50").add(BigDecimal.valueOf(i)))
+                .name(author)
+                .authorName(author.getName());
+            book.setId(String.format("5cc1c9c1a1b2c3d4e5f6%04d", i));
+            books.add(book);
+        }
+        booksJson = objectMapper.writeValueAsString(books);
+    }
+
+    @Benchmark
+    public byte[] writeBooks() throws IOException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] writeAuthors() throws IOException {
+        return objectMapper.writeValueAsBytes(authors);
+    }
+
+    @Benchmark
+    public Book[] readBooks() throws IOException {
+        return objectMapper.readValue(booksJson, Book[].class);
+    }
+}
@@ -0,0 +1,113 @@
+package com.mycompany.myapp.benchmark;
+
+import com.mycompany.myapp.aop.metrics.TracingAspect;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.web.rest.BookResource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of tracing {@link BookResource#getBook(String)}: called directly, through the former
+ * logging around-advice, and through the {@link TracingAspect}.
+ * <p>
+ * The repository returns a book from memory, so the benchmark only measures the proxies and advices.
+ * Run with {@code -prof gc} to compare the allocations per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class TracingAspectBenchmark {
+
+    private static final String BOOK_ID = "5cc1c9c1a1b2c3d4e5f60001";
+
+    private BookResource direct;
+
+    private BookResource logged;
+
+    private BookResource traced;
+
+    @Setup
+    public void setup() {
+        Book book = new Book().title("Pride and Prejudice");
+        book.setId(BOOK_ID);
+        BookRepository bookRepository = (BookRepository) Proxy.newProxyInstance(BookRepository.class.getClassLoader(),
+            new Class<?>[] {BookRepository.class}, (proxy, method, args) -> {
+                if (method.getName().equals("findById")) {
+                    return Optional.of(book);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        direct = new BookResource(bookRepository, null, null, null, null, null, null, null, null, null);
+        logged = proxy(direct, new LoggingAroundAspect());
+        traced = proxy(direct, new TracingAspect(new SimpleMeterRegistry(), new ApplicationProperties()));
+    }
+
+    @Benchmark
+    public ResponseEntity<Book> getBookDirectly() {
+        return direct.getBook(BOOK_ID);
+    }
+
+    @Benchmark
+    public ResponseEntity<Book> getBookWithLoggingAdvice() {
+        return logged.getBook(BOOK_ID);
+    }
+
+    @Benchmark
+    public ResponseEntity<Book> getBookWithTracingAspect() {
+        return traced.getBook(BOOK_ID);
+    }
+
+    private static BookResource proxy(BookResource target, Object aspect) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        return proxyFactory.getProxy();
+    }
+
+    /**
+     * The around-advice formerly applied by the {@code LoggingAspect}, which formats the signature and the
+     * arguments of every call when debug is enabled.
+     */
+    @Aspect
+    public static class LoggingAroundAspect {
+
+        private final Logger log = LoggerFactory.getLogger(LoggingAroundAspect.class);
+
+        @Around("within(@org.springframework.web.bind.annotation.RestController *)")
+        public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
+            if (log.isDebugEnabled()) {
+                log.debug("Enter: {}.{}() with argument[s] = {}", joinPoint.getSignature().getDeclaringTypeName(),
+                    joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+            }
+            try {
+                Object result = joinPoint.proceed();
+                if (log.isDebugEnabled()) {
+                    log.debug("Exit: {}.{}() with result = {}", joinPoint.getSignature().getDeclaringTypeName(),
+                        joinPoint.getSignature().getName(), result);
+                }
+                return result;
+            } catch (IllegalArgumentException e) {
+                log.error("Illegal argument: {} in {}.{}()", Arrays.toString(joinPoint.getArgs()),
+                    joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
+                throw e;
+            }
+        }
+    }
+}
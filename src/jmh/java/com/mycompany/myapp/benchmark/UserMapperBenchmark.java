@@ -0,0 +1,68 @@
+package com.mycompany.myapp.benchmark;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.dto.UserDTO;
+import com.mycompany.myapp.service.mapper.UserMapper;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the mapping of a page of users to their DTOs and back, as done by the user management endpoints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class UserMapperBenchmark {
+
+    @Param({"20", "100"})
+    private int size;
+
+    private UserMapper userMapper;
+
+    private List<User> users;
+
+    private List<UserDTO> userDTOs;
+
+    @Setup
+    public void setup() {
+        userMapper = new UserMapper();
+        Set<Authority> authorities = new HashSet<>();
+        Authority user = new Authority();
+        user.setName(AuthoritiesConstants.USER);
+        authorities.add(user);
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User entity = new User();
+            entity.setId(String.format("user-%04d", i));
+            entity.setLogin("user" + i);
+            entity.setFirstName("First" + i);
+            entity.setLastName("Last" + i);
+            entity.setEmail("user" + i + "@localhost");
+            entity.setActivated(true);
+            entity.setLangKey("en");
+            entity.setAuthorities(authorities);
+            users.add(entity);
+        }
+        userDTOs = userMapper.usersToUserDTOs(users);
+    }
+
+    @Benchmark
+    public List<UserDTO> usersToUserDTOs() {
+        return userMapper.usersToUserDTOs(users);
+    }
+
+    @Benchmark
+    public List<User> userDTOsToUsers() {
+        return userMapper.userDTOsToUsers(userDTOs);
+    }
+}
@@ -0,0 +1,77 @@
+package com.mycompany.myapp.aop.metrics;
+
+import com.mycompany.myapp.config.MongoCommandMetrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aspect registering the repository or service method running on the current thread, to tag the MongoDB
+ * commands timed by {@link MongoCommandMetrics}.
+ * <p>
+ * A command is tagged with the innermost method: a repository method called by a service wins over the service.
+ */
+@Aspect
+public class MongoCallerAspect {
+
+    private static final String APPLICATION_PACKAGE = "com.mycompany.myapp.";
+
+    private final Map<Class<?>, String> typeNames = new ConcurrentHashMap<>();
+
+    /**
+     * Pointcut that matches all Spring Data repositories.
+     */
+    @Pointcut("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public void repositoryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all services of the application.
+     */
+    @Pointcut("within(com.mycompany.myapp.service..*) && within(@org.springframework.stereotype.Service *)")
+    public void servicePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that registers the method as the caller of the MongoDB commands it sends.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable throws {@link IllegalArgumentException}.
+     */
+    @Around("repositoryPointcut() || servicePointcut()")
+    public Object registerCaller(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object target = joinPoint.getTarget();
+        String typeName = target == null ? joinPoint.getSignature().getDeclaringType().getSimpleName() :
+            typeNames.computeIfAbsent(target.getClass(), MongoCallerAspect::getTypeName);
+        String previous = MongoCommandMetrics.registerCaller(typeName + '.' + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            MongoCommandMetrics.restoreCaller(previous);
+        }
+    }
+
+    /**
+     * @return the name of the application type implemented by a bean, so that the methods inherited by a
+     * repository, like {@code findAll}, are named after the repository and not after Spring Data.
+     */
+    private static String getTypeName(Class<?> type) {
+        if (type.getName().startsWith(APPLICATION_PACKAGE) && !type.getName().contains("$")) {
+            return type.getSimpleName();
+        }
+        for (Class<?> implemented : type.getInterfaces()) {
+            if (implemented.getName().startsWith(APPLICATION_PACKAGE)) {
+                return implemented.getSimpleName();
+            }
+        }
+        return type.getSuperclass() == null || type.getSuperclass() == Object.class ? type.getSimpleName() : getTypeName(type.getSuperclass());
+    }
+}
@@ -0,0 +1,155 @@
+package com.mycompany.myapp.aop.metrics;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aspect timing the execution of service and repository Spring components, and of the REST endpoints.
+ * <p>
+ * Every call is recorded in the {@code method.timed} timer of its method, which is looked up once per method. The
+ * arguments and results are only formatted for the calls sampled at debug level: they may hold passwords, so the
+ * slow calls and illegal arguments logged in every profile only tell the method and the duration.
+ */
+@Aspect
+public class TracingAspect {
+
+    public static final String METHOD_METRIC = "method.timed";
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final Logger log = LoggerFactory.getLogger(TracingAspect.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final int sampleRate;
+
+    private final long slowThresholdNanos;
+
+    private final Map<Method, TracedMethod> tracedMethods = new ConcurrentHashMap<>();
+
+    public TracingAspect(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = Math.max(1, applicationProperties.getTracing().getSampleRate());
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(applicationProperties.getTracing().getSlowThreshold());
+    }
+
+    /**
+     * Pointcut that matches all repositories, services and Web REST endpoints.
+     */
+    @Pointcut("within(@org.springframework.stereotype.Repository *)" +
+        " || within(@org.springframework.stereotype.Service *)" +
+        " || within(@org.springframework.web.bind.annotation.RestController *)")
+    public void springBeanPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all Spring beans in the application's main packages.
+     */
+    @Pointcut("within(com.mycompany.myapp.repository..*)"+
+        " || within(com.mycompany.myapp.service..*)"+
+        " || within(com.mycompany.myapp.web.rest..*)")
+    public void applicationPackagePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times a method, and logs the sampled and slow calls.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable throws {@link IllegalArgumentException}.
+     */
+    @Around("applicationPackagePointcut() && springBeanPointcut()")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        TracedMethod method = tracedMethods.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(), this::createTracedMethod);
+        boolean sampled = log.isDebugEnabled() && (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+        if (sampled) {
+            log.debug("Enter: {}() with argument[s] = {}", method.name, Arrays.toString(joinPoint.getArgs()));
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            long elapsed = System.nanoTime() - start;
+            method.failureTimer(meterRegistry, e).record(elapsed, TimeUnit.NANOSECONDS);
+            if (e instanceof IllegalArgumentException) {
+                log.error("Illegal argument in {}(): {}", method.name, e.getMessage());
+                if (log.isDebugEnabled()) {
+                    log.debug("Illegal argument[s] of {}() = {}", method.name, Arrays.toString(joinPoint.getArgs()));
+                }
+            } else if (isSlow(elapsed)) {
+                log.warn("Slow call: {}() failed after {} ms", method.name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        method.timer.record(elapsed, TimeUnit.NANOSECONDS);
+        if (isSlow(elapsed)) {
+            log.warn("Slow call: {}() took {} ms", method.name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+        if (sampled) {
+            log.debug("Exit: {}() with result = {}", method.name, result);
+        }
+        return result;
+    }
+
+    private boolean isSlow(long elapsed) {
+        return slowThresholdNanos > 0 && elapsed >= slowThresholdNanos;
+    }
+
+    private TracedMethod createTracedMethod(Method method) {
+        String className = method.getDeclaringClass().getSimpleName();
+        return new TracedMethod(className + '.' + method.getName(), className, method.getName(),
+            timer(meterRegistry, className, method.getName(), NO_EXCEPTION));
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String className, String methodName, String exception) {
+        return Timer.builder(METHOD_METRIC)
+            .description("Execution time of the services, repositories and REST endpoints")
+            .tags("class", className, "method", methodName, "exception", exception)
+            .register(meterRegistry);
+    }
+
+    private static final class TracedMethod {
+
+        private final String name;
+
+        private final String className;
+
+        private final String methodName;
+
+        private final Timer timer;
+
+        private TracedMethod(String name, String className, String methodName, Timer timer) {
+            this.name = name;
+            this.className = className;
+            this.methodName = methodName;
+            this.timer = timer;
+        }
+
+        /**
+         * @return the timer of the calls throwing an exception, which is looked up again as failures are expected to be rare.
+         */
+        private Timer failureTimer(MeterRegistry meterRegistry, Throwable e) {
+            return TracingAspect.timer(meterRegistry, className, methodName, e.getClass().getSimpleName());
+        }
+    }
+}
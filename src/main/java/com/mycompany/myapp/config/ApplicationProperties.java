@@ -2,6 +2,9 @@ package com.mycompany.myapp.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Properties specific to Jhipster Starter.
  * <p>
@@ -11,4 +14,378 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
 
+    private final Elasticsearch elasticsearch = new Elasticsearch();
+
+    private final ChangeStreams changeStreams = new ChangeStreams();
+
+    private final Mongo mongo = new Mongo();
+
+    private final Tracing tracing = new Tracing();
+
+    public Elasticsearch getElasticsearch() {
+        return elasticsearch;
+    }
+
+    public Mongo getMongo() {
+        return mongo;
+    }
+
+    public ChangeStreams getChangeStreams() {
+        return changeStreams;
+    }
+
+    public Tracing getTracing() {
+        return tracing;
+    }
+
+    public static class Elasticsearch {
+
+        private final Client client = new Client();
+
+        private final Bulk bulk = new Bulk();
+
+        public Client getClient() {
+            return client;
+        }
+
+        public Bulk getBulk() {
+            return bulk;
+        }
+
+        /**
+         * Connection settings of the HTTP client, used when {@code spring.data.jest.uri} is set.
+         */
+        public static class Client {
+
+            private int maxTotalConnections = 40;
+
+            private int maxConnectionsPerRoute = 20;
+
+            private int connectTimeout = 3000;
+
+            private int readTimeout = 10000;
+
+            private long maxIdleTime = 60000;
+
+            private long keepAlive = 30000;
+
+            private boolean requestCompression = true;
+
+            public int getMaxTotalConnections() {
+                return maxTotalConnections;
+            }
+
+            public void setMaxTotalConnections(int maxTotalConnections) {
+                this.maxTotalConnections = maxTotalConnections;
+            }
+
+            public int getMaxConnectionsPerRoute() {
+                return maxConnectionsPerRoute;
+            }
+
+            public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+                this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            }
+
+            public int getConnectTimeout() {
+                return connectTimeout;
+            }
+
+            public void setConnectTimeout(int connectTimeout) {
+                this.connectTimeout = connectTimeout;
+            }
+
+            public int getReadTimeout() {
+                return readTimeout;
+            }
+
+            public void setReadTimeout(int readTimeout) {
+                this.readTimeout = readTimeout;
+            }
+
+            public long getMaxIdleTime() {
+                return maxIdleTime;
+            }
+
+            public void setMaxIdleTime(long maxIdleTime) {
+                this.maxIdleTime = maxIdleTime;
+            }
+
+            public long getKeepAlive() {
+                return keepAlive;
+            }
+
+            public void setKeepAlive(long keepAlive) {
+                this.keepAlive = keepAlive;
+            }
+
+            public boolean isRequestCompression() {
+                return requestCompression;
+            }
+
+            public void setRequestCompression(boolean requestCompression) {
+                this.requestCompression = requestCompression;
+            }
+        }
+
+        /**
+         * Flush policy of the {@link com.mycompany.myapp.repository.search.SearchBulkProcessor}.
+         */
+        public static class Bulk {
+
+            private int actions = 500;
+
+            private long flushInterval = 1000;
+
+            public int getActions() {
+                return actions;
+            }
+
+            public void setActions(int actions) {
+                this.actions = actions;
+            }
+
+            public long getFlushInterval() {
+                return flushInterval;
+            }
+
+            public void setFlushInterval(long flushInterval) {
+                this.flushInterval = flushInterval;
+            }
+        }
+    }
+
+    /**
+     * Settings of the {@link com.mycompany.myapp.service.ChangeStreamConsumer}.
+     */
+    public static class ChangeStreams {
+
+        private boolean enabled = true;
+
+        private int batchSize = 100;
+
+        private long maxAwaitTime = 1000;
+
+        private long retryDelay = 5000;
+
+        private long leaseTime = 30000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getMaxAwaitTime() {
+            return maxAwaitTime;
+        }
+
+        public void setMaxAwaitTime(long maxAwaitTime) {
+            this.maxAwaitTime = maxAwaitTime;
+        }
+
+        public long getRetryDelay() {
+            return retryDelay;
+        }
+
+        public void setRetryDelay(long retryDelay) {
+            this.retryDelay = retryDelay;
+        }
+
+        public long getLeaseTime() {
+            return leaseTime;
+        }
+
+        public void setLeaseTime(long leaseTime) {
+            this.leaseTime = leaseTime;
+        }
+    }
+
+    /**
+     * Settings of the MongoDB client, and read preferences and write concerns by collection.
+     * <p>
+     * Read preferences and write concerns are given by name, for instance {@code secondaryPreferred} or {@code majority}.
+     * Commands slower than {@code slowCommandThreshold} milliseconds are logged, 0 disables the log.
+     */
+    public static class Mongo {
+
+        private int minConnectionsPerHost = 0;
+
+        private int connectionsPerHost = 50;
+
+        private int threadsAllowedToBlockForConnectionMultiplier = 5;
+
+        private int maxWaitTime = 5000;
+
+        private int maxConnectionIdleTime = 60000;
+
+        private int connectTimeout = 5000;
+
+        private int socketTimeout = 30000;
+
+        private int serverSelectionTimeout = 10000;
+
+        private String readPreference = "primary";
+
+        private String writeConcern = "acknowledged";
+
+        private Map<String, String> readPreferences = new HashMap<>();
+
+        private Map<String, String> writeConcerns = new HashMap<>();
+
+        private long slowCommandThreshold = 200;
+
+        public int getMinConnectionsPerHost() {
+            return minConnectionsPerHost;
+        }
+
+        public void setMinConnectionsPerHost(int minConnectionsPerHost) {
+            this.minConnectionsPerHost = minConnectionsPerHost;
+        }
+
+        public int getConnectionsPerHost() {
+            return connectionsPerHost;
+        }
+
+        public void setConnectionsPerHost(int connectionsPerHost) {
+            this.connectionsPerHost = connectionsPerHost;
+        }
+
+        public int getThreadsAllowedToBlockForConnectionMultiplier() {
+            return threadsAllowedToBlockForConnectionMultiplier;
+        }
+
+        public void setThreadsAllowedToBlockForConnectionMultiplier(int threadsAllowedToBlockForConnectionMultiplier) {
+            this.threadsAllowedToBlockForConnectionMultiplier = threadsAllowedToBlockForConnectionMultiplier;
+        }
+
+        public int getMaxWaitTime() {
+            return maxWaitTime;
+        }
+
+        public void setMaxWaitTime(int maxWaitTime) {
+            this.maxWaitTime = maxWaitTime;
+        }
+
+        public int getMaxConnectionIdleTime() {
+            return maxConnectionIdleTime;
+        }
+
+        public void setMaxConnectionIdleTime(int maxConnectionIdleTime) {
+            this.maxConnectionIdleTime = maxConnectionIdleTime;
+        }
+
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public int getSocketTimeout() {
+            return socketTimeout;
+        }
+
+        public void setSocketTimeout(int socketTimeout) {
+            this.socketTimeout = socketTimeout;
+        }
+
+        public int getServerSelectionTimeout() {
+            return serverSelectionTimeout;
+        }
+
+        public void setServerSelectionTimeout(int serverSelectionTimeout) {
+            this.serverSelectionTimeout = serverSelectionTimeout;
+        }
+
+        public String getReadPreference() {
+            return readPreference;
+        }
+
+        public void setReadPreference(String readPreference) {
+            this.readPreference = readPreference;
+        }
+
+        public String getWriteConcern() {
+            return writeConcern;
+        }
+
+        public void setWriteConcern(String writeConcern) {
+            this.writeConcern = writeConcern;
+        }
+
+        public Map<String, String> getReadPreferences() {
+            return readPreferences;
+        }
+
+        public void setReadPreferences(Map<String, String> readPreferences) {
+            this.readPreferences = readPreferences;
+        }
+
+        public Map<String, String> getWriteConcerns() {
+            return writeConcerns;
+        }
+
+        public void setWriteConcerns(Map<String, String> writeConcerns) {
+            this.writeConcerns = writeConcerns;
+        }
+
+        public long getSlowCommandThreshold() {
+            return slowCommandThreshold;
+        }
+
+        public void setSlowCommandThreshold(long slowCommandThreshold) {
+            this.slowCommandThreshold = slowCommandThreshold;
+        }
+    }
+
+    /**
+     * Settings of the {@link com.mycompany.myapp.aop.metrics.TracingAspect}.
+     * <p>
+     * One call out of {@code sampleRate} is logged with its arguments at debug level, and the calls slower than
+     * {@code slowThreshold} milliseconds at warn level.
+     */
+    public static class Tracing {
+
+        private boolean enabled = true;
+
+        private int sampleRate = 100;
+
+        private long slowThreshold = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(int sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public long getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(long slowThreshold) {
+            this.slowThreshold = slowThreshold;
+        }
+    }
 }
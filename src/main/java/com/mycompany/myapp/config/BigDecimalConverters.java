@@ -0,0 +1,43 @@
+package com.mycompany.myapp.config;
+
+import org.bson.types.Decimal128;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.math.BigDecimal;
+
+/**
+ * Converters storing {@link BigDecimal} values as {@link Decimal128}, rather than as strings.
+ * <p>
+ * Stored as strings, decimals are compared lexicographically: sorts and range queries on them are
+ * wrong ({@code "10.00" < "9.00"}), and their indexes useless. Strings are still read, so that documents
+ * written before the conversion stay readable.
+ */
+public final class BigDecimalConverters {
+
+    private BigDecimalConverters() {
+    }
+
+    @WritingConverter
+    public enum BigDecimalToDecimal128Converter implements Converter<BigDecimal, Decimal128> {
+
+        INSTANCE;
+
+        @Override
+        public Decimal128 convert(BigDecimal source) {
+            return new Decimal128(source);
+        }
+    }
+
+    @ReadingConverter
+    public enum Decimal128ToBigDecimalConverter implements Converter<Decimal128, BigDecimal> {
+
+        INSTANCE;
+
+        @Override
+        public BigDecimal convert(Decimal128 source) {
+            return source.bigDecimalValue();
+        }
+    }
+}
@@ -18,16 +18,37 @@ import org.springframework.context.annotation.*;
 @EnableCaching
 public class CacheConfiguration {
 
+    /**
+     * The cached facets are only evicted on the instance which indexed the change, so they expire early on the others.
+     */
+    private static final Duration BOOK_FACETS_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    /**
+     * The cached accounts are evicted on every instance by the user change stream, which is not followed on a
+     * standalone MongoDB, so that a deactivated user does not keep its account for long either way.
+     */
+    private static final Duration ACCOUNTS_TIME_TO_LIVE = Duration.ofMinutes(5);
+
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
 
+    private final javax.cache.configuration.Configuration<Object, Object> bookFacetsConfiguration;
+
+    private final javax.cache.configuration.Configuration<Object, Object> accountsConfiguration;
+
     public CacheConfiguration(JHipsterProperties jHipsterProperties) {
         JHipsterProperties.Cache.Ehcache ehcache =
             jHipsterProperties.getCache().getEhcache();
 
-        jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
+        jcacheConfiguration = timeToLiveConfiguration(ehcache.getMaxEntries(), Duration.ofSeconds(ehcache.getTimeToLiveSeconds()));
+        bookFacetsConfiguration = timeToLiveConfiguration(ehcache.getMaxEntries(), BOOK_FACETS_TIME_TO_LIVE);
+        accountsConfiguration = timeToLiveConfiguration(ehcache.getMaxEntries(), ACCOUNTS_TIME_TO_LIVE);
+    }
+
+    private static javax.cache.configuration.Configuration<Object, Object> timeToLiveConfiguration(long maxEntries, Duration timeToLive) {
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
             CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
-                ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
+                ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive))
                 .build());
     }
 
@@ -37,15 +58,21 @@ public class CacheConfiguration {
         return cm -> {
             createCache(cm, com.mycompany.myapp.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, com.mycompany.myapp.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, com.mycompany.myapp.service.BookSearchService.BOOK_FACETS_CACHE, bookFacetsConfiguration);
+            createCache(cm, com.mycompany.myapp.service.AccountCache.ACCOUNTS_CACHE, accountsConfiguration);
             // jhipster-needle-ehcache-add-entry
         };
     }
 
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, jcacheConfiguration);
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName, javax.cache.configuration.Configuration<Object, Object> configuration) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cm.destroyCache(cacheName);
         }
-        cm.createCache(cacheName, jcacheConfiguration);
+        cm.createCache(cacheName, configuration);
     }
 }
@@ -7,15 +7,18 @@ import io.github.jhipster.domain.util.JSR310DateConverters.*;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cloud.Cloud;
 import org.springframework.cloud.CloudException;
 import org.springframework.cloud.config.java.AbstractCloudConfig;
 import org.springframework.cloud.service.ServiceInfo;
 import org.springframework.cloud.service.common.MongoServiceInfo;
+import org.springframework.cloud.service.document.MongoDbFactoryConfig;
 import org.springframework.context.annotation.*;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.mongodb.MongoDbFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.data.mongodb.core.mapping.event.ValidatingMongoEventListener;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
@@ -32,9 +35,15 @@ public class CloudDatabaseConfiguration extends AbstractCloudConfig {
 
     private final Logger log = LoggerFactory.getLogger(CloudDatabaseConfiguration.class);
 
+    /**
+     * The connection settings are limited to the ones supported by the connectors: the command and connection pool
+     * metrics of {@link DatabaseConfiguration#mongoClientOptions} are not available on the cloud.
+     */
     @Bean
-    public MongoDbFactory mongoFactory() {
-        return connectionFactory().mongoDbFactory();
+    public MongoDbFactory mongoFactory(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Mongo mongo = applicationProperties.getMongo();
+        return connectionFactory().mongoDbFactory(
+            new MongoDbFactoryConfig(mongo.getWriteConcern(), mongo.getConnectionsPerHost(), mongo.getMaxWaitTime()));
     }
 
     @Bean
@@ -53,11 +62,25 @@ public class CloudDatabaseConfiguration extends AbstractCloudConfig {
         converterList.add(DateToZonedDateTimeConverter.INSTANCE);
         converterList.add(ZonedDateTimeToDateConverter.INSTANCE);
         converterList.add(DurationToLongConverter.INSTANCE);
+        converterList.add(BigDecimalConverters.BigDecimalToDecimal128Converter.INSTANCE);
+        converterList.add(BigDecimalConverters.Decimal128ToBigDecimalConverter.INSTANCE);
         return new MongoCustomConversions(converterList);
     }
 
     @Bean
-    public Mongobee mongobee(MongoDbFactory mongoDbFactory, MongoTemplate mongoTemplate, Cloud cloud) {
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDbFactory mongoDbFactory, MongoConverter mongoConverter, ApplicationProperties applicationProperties) {
+        return DatabaseConfiguration.collectionSettingsMongoTemplate(mongoDbFactory, mongoConverter, applicationProperties.getMongo(), false);
+    }
+
+    @Bean(DatabaseConfiguration.PRIMARY_MONGO_TEMPLATE)
+    public MongoTemplate primaryMongoTemplate(MongoDbFactory mongoDbFactory, MongoConverter mongoConverter, ApplicationProperties applicationProperties) {
+        return DatabaseConfiguration.collectionSettingsMongoTemplate(mongoDbFactory, mongoConverter, applicationProperties.getMongo(), true);
+    }
+
+    @Bean
+    public Mongobee mongobee(MongoDbFactory mongoDbFactory, @Qualifier(DatabaseConfiguration.PRIMARY_MONGO_TEMPLATE) MongoTemplate mongoTemplate,
+                             Cloud cloud) {
         log.debug("Configuring Cloud Mongobee");
         List<ServiceInfo> matchingServiceInfos = cloud.getServiceInfos(MongoDbFactory.class);
 
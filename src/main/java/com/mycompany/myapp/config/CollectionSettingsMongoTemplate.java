@@ -0,0 +1,34 @@
+package com.mycompany.myapp.config;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.Map;
+
+/**
+ * {@link MongoTemplate} applying a read preference by collection, as Spring Data only supports one for the whole template.
+ * <p>
+ * As the repositories run on the template, this is also the read preference of their queries. Collections
+ * obtained with {@link #getCollection(String)} are not affected.
+ */
+public class CollectionSettingsMongoTemplate extends MongoTemplate {
+
+    private final Map<String, ReadPreference> readPreferences;
+
+    public CollectionSettingsMongoTemplate(MongoDbFactory mongoDbFactory, MongoConverter mongoConverter,
+                                           Map<String, ReadPreference> readPreferences) {
+        super(mongoDbFactory, mongoConverter);
+        this.readPreferences = readPreferences;
+    }
+
+    @Override
+    protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+        ReadPreference readPreference = readPreferences.get(collection.getNamespace().getCollectionName());
+        MongoCollection<Document> prepared = super.prepareCollection(collection);
+        return readPreference == null ? prepared : prepared.withReadPreference(readPreference);
+    }
+}
@@ -1,24 +1,36 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.aop.metrics.MongoCallerAspect;
+import com.mycompany.myapp.config.BigDecimalConverters.BigDecimalToDecimal128Converter;
+import com.mycompany.myapp.config.BigDecimalConverters.Decimal128ToBigDecimalConverter;
+
 import io.github.jhipster.config.JHipsterConstants;
 import com.github.mongobee.Mongobee;
 import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.github.jhipster.domain.util.JSR310DateConverters.DateToZonedDateTimeConverter;
 import io.github.jhipster.domain.util.JSR310DateConverters.ZonedDateTimeToDateConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
 import org.springframework.boot.autoconfigure.mongo.MongoProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.ComponentScan.Filter;
 import org.springframework.context.annotation.FilterType;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.elasticsearch.repository.config.EnableElasticsearchRepositories;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.MongoDbFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.data.mongodb.core.mapping.event.ValidatingMongoEventListener;
 import org.springframework.data.mongodb.repository.MongoRepository;
@@ -26,7 +38,9 @@ import org.springframework.data.mongodb.repository.config.EnableMongoRepositorie
 
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableElasticsearchRepositories("com.mycompany.myapp.repository.search")
@@ -36,6 +50,14 @@ import java.util.List;
 @EnableMongoAuditing(auditorAwareRef = "springSecurityAuditorAware")
 public class DatabaseConfiguration {
 
+    /**
+     * Name of the {@link MongoTemplate} reading from the primary, whatever the read preferences of the collections.
+     * <p>
+     * It serves the services reading data they write next, or have just written: the migrations, the indexing
+     * of the search documents, and the copy of the author names to the books.
+     */
+    public static final String PRIMARY_MONGO_TEMPLATE = "primaryMongoTemplate";
+
     private final Logger log = LoggerFactory.getLogger(DatabaseConfiguration.class);
 
     @Bean
@@ -53,11 +75,80 @@ public class DatabaseConfiguration {
         List<Converter<?, ?>> converters = new ArrayList<>();
         converters.add(DateToZonedDateTimeConverter.INSTANCE);
         converters.add(ZonedDateTimeToDateConverter.INSTANCE);
+        converters.add(BigDecimalToDecimal128Converter.INSTANCE);
+        converters.add(Decimal128ToBigDecimalConverter.INSTANCE);
         return new MongoCustomConversions(converters);
     }
 
+    /**
+     * Options of the client created by {@link MongoAutoConfiguration}, also applied when {@code spring.data.mongodb.uri} is set,
+     * unless overridden by the options of the URI.
+     */
+    @Bean
+    public MongoClientOptions mongoClientOptions(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Mongo mongo = applicationProperties.getMongo();
+        return MongoClientOptions.builder()
+            .minConnectionsPerHost(mongo.getMinConnectionsPerHost())
+            .connectionsPerHost(mongo.getConnectionsPerHost())
+            .threadsAllowedToBlockForConnectionMultiplier(mongo.getThreadsAllowedToBlockForConnectionMultiplier())
+            .maxWaitTime(mongo.getMaxWaitTime())
+            .maxConnectionIdleTime(mongo.getMaxConnectionIdleTime())
+            .connectTimeout(mongo.getConnectTimeout())
+            .socketTimeout(mongo.getSocketTimeout())
+            .serverSelectionTimeout(mongo.getServerSelectionTimeout())
+            .readPreference(ReadPreference.valueOf(mongo.getReadPreference()))
+            .writeConcern(WriteConcern.valueOf(mongo.getWriteConcern()))
+            .addConnectionPoolListener(new MongoConnectionPoolMetrics(meterRegistry))
+            .addCommandListener(new MongoCommandMetrics(meterRegistry, mongo.getSlowCommandThreshold()))
+            .build();
+    }
+
+    /**
+     * Registers the repository and service methods sending the commands timed by {@link MongoCommandMetrics}.
+     */
+    @Bean
+    public MongoCallerAspect mongoCallerAspect() {
+        return new MongoCallerAspect();
+    }
+
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDbFactory mongoDbFactory, MongoConverter mongoConverter, ApplicationProperties applicationProperties) {
+        ApplicationProperties.Mongo mongo = applicationProperties.getMongo();
+        log.debug("Configuring MongoDB read preferences {} and write concerns {}", mongo.getReadPreferences(), mongo.getWriteConcerns());
+        return collectionSettingsMongoTemplate(mongoDbFactory, mongoConverter, mongo, false);
+    }
+
+    @Bean(PRIMARY_MONGO_TEMPLATE)
+    public MongoTemplate primaryMongoTemplate(MongoDbFactory mongoDbFactory, MongoConverter mongoConverter, ApplicationProperties applicationProperties) {
+        return collectionSettingsMongoTemplate(mongoDbFactory, mongoConverter, applicationProperties.getMongo(), true);
+    }
+
+    /**
+     * Creates a template applying the read preferences and write concerns of the collections, also used by the
+     * {@link CloudDatabaseConfiguration}.
+     *
+     * @param primaryReads whether to read from the primary, ignoring the read preferences of the collections.
+     */
+    static MongoTemplate collectionSettingsMongoTemplate(MongoDbFactory mongoDbFactory, MongoConverter mongoConverter,
+                                                         ApplicationProperties.Mongo mongo, boolean primaryReads) {
+        Map<String, ReadPreference> readPreferences = new HashMap<>();
+        if (!primaryReads) {
+            mongo.getReadPreferences().forEach((collection, name) -> readPreferences.put(collection, ReadPreference.valueOf(name)));
+        }
+        Map<String, WriteConcern> writeConcerns = new HashMap<>();
+        mongo.getWriteConcerns().forEach((collection, name) -> writeConcerns.put(collection, WriteConcern.valueOf(name)));
+        MongoTemplate mongoTemplate = new CollectionSettingsMongoTemplate(mongoDbFactory, mongoConverter, readPreferences);
+        if (primaryReads) {
+            mongoTemplate.setReadPreference(ReadPreference.primary());
+        }
+        mongoTemplate.setWriteConcernResolver(action ->
+            writeConcerns.getOrDefault(action.getCollectionName(), action.getDefaultWriteConcern()));
+        return mongoTemplate;
+    }
+
     @Bean
-    public Mongobee mongobee(MongoClient mongoClient, MongoTemplate mongoTemplate, MongoProperties mongoProperties) {
+    public Mongobee mongobee(MongoClient mongoClient, @Qualifier(PRIMARY_MONGO_TEMPLATE) MongoTemplate mongoTemplate, MongoProperties mongoProperties) {
         log.debug("Configuring Mongobee");
         Mongobee mongobee = new Mongobee(mongoClient);
         mongobee.setDbName(mongoProperties.getMongoClientDatabase());
@@ -1,11 +1,26 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.domain.search.AuthorDocument;
+import com.mycompany.myapp.domain.search.BookDocument;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.vanroy.springdata.jest.JestElasticsearchTemplate;
 import com.github.vanroy.springdata.jest.mapper.DefaultJestResultsMapper;
 import io.searchbox.client.JestClient;
+import io.searchbox.client.JestClientFactory;
+import io.searchbox.client.config.HttpClientConfig;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -24,6 +39,12 @@ import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchC
 import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchPersistentEntity;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableConfigurationProperties(ElasticsearchProperties.class)
@@ -36,10 +57,41 @@ public class ElasticsearchConfiguration {
     }
 
     @Bean
-    public EntityMapper getEntityMapper() {
+    public CustomEntityMapper getEntityMapper() {
         return new CustomEntityMapper(mapper);
     }
 
+    /**
+     * Pooled HTTP client of a remote Elasticsearch cluster.
+     * <p>
+     * Connections are kept alive and reused across requests, idle ones are evicted, and request bodies
+     * are gzipped. Without {@code spring.data.jest.uri}, the client of the embedded node is used instead.
+     */
+    @Bean
+    @ConditionalOnProperty("spring.data.jest.uri")
+    public JestClient jestClient(@Value("${spring.data.jest.uri}") String uri, ApplicationProperties applicationProperties) {
+        ApplicationProperties.Elasticsearch.Client client = applicationProperties.getElasticsearch().getClient();
+        JestClientFactory factory = new JestClientFactory() {
+            @Override
+            protected HttpClientBuilder configureHttpClient(HttpClientBuilder builder) {
+                return builder.setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? Math.min(keepAlive, client.getKeepAlive()) : client.getKeepAlive();
+                });
+            }
+        };
+        factory.setHttpClientConfig(new HttpClientConfig.Builder(uri)
+            .multiThreaded(true)
+            .maxTotalConnection(client.getMaxTotalConnections())
+            .defaultMaxTotalConnectionPerRoute(client.getMaxConnectionsPerRoute())
+            .connTimeout(client.getConnectTimeout())
+            .readTimeout(client.getReadTimeout())
+            .maxConnectionIdleTime(client.getMaxIdleTime(), TimeUnit.MILLISECONDS)
+            .requestCompressionEnabled(client.isRequestCompression())
+            .build());
+        return factory.getObject();
+    }
+
     @Bean
     @Primary
     public ElasticsearchOperations elasticsearchTemplate(final JestClient jestClient,
@@ -52,9 +104,22 @@ public class ElasticsearchConfiguration {
             new DefaultJestResultsMapper(simpleElasticsearchMappingContext, mapper));
     }
 
-    public class CustomEntityMapper implements EntityMapper {
+    /**
+     * Maps documents with Jackson.
+     * <p>
+     * Readers and writers are cached per class, so their root (de)serializers are only resolved once,
+     * and eagerly for the indexed documents. Search hits can be mapped straight from the response body,
+     * without an intermediate {@code String} per hit.
+     */
+    public static class CustomEntityMapper implements EntityMapper {
+
+        private static final Class<?>[] DOCUMENT_CLASSES = {AuthorDocument.class, BookDocument.class, User.class};
 
-        private ObjectMapper objectMapper;
+        private final ObjectMapper objectMapper;
+
+        private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+        private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
 
         public CustomEntityMapper(ObjectMapper objectMapper) {
             this.objectMapper = objectMapper;
@@ -63,16 +128,88 @@ public class ElasticsearchConfiguration {
             objectMapper.configure(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS, true);
             objectMapper.configure(SerializationFeature.INDENT_OUTPUT, false);
             objectMapper.configure(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS, true);
+            for (Class<?> documentClass : DOCUMENT_CLASSES) {
+                reader(documentClass);
+                writer(documentClass);
+            }
         }
 
         @Override
         public String mapToString(Object object) throws IOException {
-            return objectMapper.writeValueAsString(object);
+            return writer(object.getClass()).writeValueAsString(object);
         }
 
         @Override
         public <T> T mapToObject(String source, Class<T> clazz) throws IOException {
-            return objectMapper.readValue(source, clazz);
+            return reader(clazz).readValue(source);
+        }
+
+        /**
+         * Writes a document to a stream, without an intermediate {@code String}.
+         *
+         * @param object the document.
+         * @param out the stream to write to, left open.
+         * @throws IOException if the document could not be written.
+         */
+        public void writeTo(Object object, OutputStream out) throws IOException {
+            writer(object.getClass()).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, object);
+        }
+
+        /**
+         * Maps the {@code _source} of the hits of a search response, in a single pass over the response.
+         *
+         * @param response the body of the search response.
+         * @param clazz the class of the documents.
+         * @param <T> the class of the documents.
+         * @return the documents, in the order of the hits.
+         * @throws IOException if the response could not be parsed.
+         */
+        public <T> List<T> mapHits(String response, Class<T> clazz) throws IOException {
+            List<T> hits = new ArrayList<>();
+            ObjectReader reader = reader(clazz);
+            try (JsonParser parser = objectMapper.getFactory().createParser(response)) {
+                if (!nextField(parser, "hits") || !nextField(parser, "hits") || parser.nextToken() != JsonToken.START_ARRAY) {
+                    return hits;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.getCurrentName();
+                        if (parser.nextToken() == JsonToken.START_OBJECT && "_source".equals(field)) {
+                            hits.add(reader.readValue(parser));
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            }
+            return hits;
+        }
+
+        /**
+         * Moves the parser to a field of the object starting at the next token.
+         *
+         * @return whether the field was found.
+         */
+        private static boolean nextField(JsonParser parser, String name) throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                if (name.equals(parser.getCurrentName())) {
+                    return true;
+                }
+                parser.nextToken();
+                parser.skipChildren();
+            }
+            return false;
+        }
+
+        private ObjectReader reader(Class<?> clazz) {
+            return readers.computeIfAbsent(clazz, objectMapper::readerFor);
+        }
+
+        private ObjectWriter writer(Class<?> clazz) {
+            return writers.computeIfAbsent(clazz, objectMapper::writerFor);
         }
     }
 
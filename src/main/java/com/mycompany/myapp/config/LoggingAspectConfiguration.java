@@ -1,9 +1,12 @@
 package com.mycompany.myapp.config;
 
 import com.mycompany.myapp.aop.logging.LoggingAspect;
+import com.mycompany.myapp.aop.metrics.TracingAspect;
 
 import io.github.jhipster.config.JHipsterConstants;
+import io.micrometer.core.instrument.MeterRegistry;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 
@@ -16,4 +19,10 @@ public class LoggingAspectConfiguration {
     public LoggingAspect loggingAspect(Environment env) {
         return new LoggingAspect(env);
     }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.tracing", name = "enabled", matchIfMissing = true)
+    public TracingAspect tracingAspect(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        return new TracingAspect(meterRegistry, applicationProperties);
+    }
 }
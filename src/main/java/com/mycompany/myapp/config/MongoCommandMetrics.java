@@ -0,0 +1,174 @@
+package com.mycompany.myapp.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the commands sent to MongoDB, and logs the slow ones, except the {@code getMore} of the change streams.
+ * <ul>
+ *     <li>{@code mongodb.driver.commands}: the latency of the commands.</li>
+ *     <li>{@code mongodb.driver.commands.documents}: the number of documents returned or written by the commands.</li>
+ * </ul>
+ * Both are tagged with the command, the collection, the outcome, and the repository or service method which sent
+ * the command, as registered by {@link com.mycompany.myapp.aop.metrics.MongoCallerAspect}.
+ */
+public class MongoCommandMetrics implements CommandListener {
+
+    public static final String COMMANDS_METRIC = "mongodb.driver.commands";
+
+    public static final String DOCUMENTS_METRIC = "mongodb.driver.commands.documents";
+
+    private static final String NONE = "none";
+
+    private static final ThreadLocal<String> CALLER = new ThreadLocal<>();
+
+    private final Logger log = LoggerFactory.getLogger(MongoCommandMetrics.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final long slowCommandThresholdNanos;
+
+    private final Map<String, StartedCommand> startedCommands = new ConcurrentHashMap<>();
+
+    public MongoCommandMetrics(MeterRegistry meterRegistry, long slowCommandThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowCommandThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowCommandThreshold);
+    }
+
+    /**
+     * Registers the method sending the next commands of the current thread.
+     *
+     * @param caller the method, as {@code Class.method}.
+     * @return the previous method, to restore with {@link #restoreCaller(String)}.
+     */
+    public static String registerCaller(String caller) {
+        String previous = CALLER.get();
+        CALLER.set(caller);
+        return previous;
+    }
+
+    /**
+     * Restores the method sending the commands of the current thread, once the registered one returned.
+     *
+     * @param previous the method returned by {@link #registerCaller(String)}.
+     */
+    public static void restoreCaller(String previous) {
+        if (previous == null) {
+            CALLER.remove();
+        } else {
+            CALLER.set(previous);
+        }
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        String commandName = event.getCommandName();
+        if (isAwaitingGetMore(commandName, command)) {
+            // The getMore of a change stream waits for new events on purpose, its latency tells nothing
+            return;
+        }
+        String caller = CALLER.get();
+        startedCommands.put(key(event.getConnectionDescription().getConnectionId().toString(), event.getRequestId()),
+            new StartedCommand(getCollection(commandName, command), caller == null ? NONE : caller));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        StartedCommand started = startedCommands.remove(key(event.getConnectionDescription().getConnectionId().toString(), event.getRequestId()));
+        if (started != null) {
+            long elapsed = event.getElapsedTime(TimeUnit.NANOSECONDS);
+            record(event.getCommandName(), started, "success", elapsed);
+            long documents = countDocuments(event.getResponse());
+            if (documents >= 0) {
+                DistributionSummary.builder(DOCUMENTS_METRIC)
+                    .description("Number of documents returned or written by the MongoDB commands")
+                    .tags(tags(event.getCommandName(), started, "success"))
+                    .register(meterRegistry)
+                    .record(documents);
+            }
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        StartedCommand started = startedCommands.remove(key(event.getConnectionDescription().getConnectionId().toString(), event.getRequestId()));
+        if (started != null) {
+            record(event.getCommandName(), started, "failure", event.getElapsedTime(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    private void record(String commandName, StartedCommand started, String outcome, long elapsed) {
+        Timer.builder(COMMANDS_METRIC)
+            .description("Latency of the MongoDB commands")
+            .tags(tags(commandName, started, outcome))
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(elapsed, TimeUnit.NANOSECONDS);
+        if (slowCommandThresholdNanos > 0 && elapsed >= slowCommandThresholdNanos) {
+            log.warn("Slow MongoDB command {} on {} from {}: {} ms", commandName, started.collection, started.caller,
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    private static Tags tags(String commandName, StartedCommand started, String outcome) {
+        return Tags.of("command", commandName, "collection", started.collection, "method", started.caller, "outcome", outcome);
+    }
+
+    private static String key(String connectionId, int requestId) {
+        return connectionId + '/' + requestId;
+    }
+
+    /**
+     * @return whether the command is the {@code getMore} of a tailable, await data cursor, such as a change stream:
+     * only these send the time to wait for new documents with their {@code getMore}.
+     */
+    private static boolean isAwaitingGetMore(String commandName, BsonDocument command) {
+        return "getMore".equals(commandName) && command.containsKey("maxTimeMS");
+    }
+
+    private static String getCollection(String commandName, BsonDocument command) {
+        BsonValue collection = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return collection != null && collection.isString() ? collection.asString().getValue() : NONE;
+    }
+
+    /**
+     * @return the number of documents of the first or next batch of a cursor, or the number of written documents,
+     * or -1 if the response has no documents.
+     */
+    private static long countDocuments(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonValue batch = cursor.asDocument().containsKey("firstBatch") ? cursor.asDocument().get("firstBatch") : cursor.asDocument().get("nextBatch");
+            return batch != null && batch.isArray() ? batch.asArray().size() : -1;
+        }
+        BsonValue count = response.get("n");
+        return count != null && count.isNumber() ? count.asNumber().longValue() : -1;
+    }
+
+    private static final class StartedCommand {
+
+        private final String collection;
+
+        private final String caller;
+
+        private StartedCommand(String collection, String caller) {
+            this.collection = collection;
+            this.caller = caller;
+        }
+    }
+}
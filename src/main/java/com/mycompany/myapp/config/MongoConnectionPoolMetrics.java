@@ -0,0 +1,108 @@
+package com.mycompany.myapp.config;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.*;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes the state of the connection pools of the MongoDB driver, one pool by server.
+ * <ul>
+ *     <li>{@code mongodb.driver.pool.size}: the number of open connections, idle or in use.</li>
+ *     <li>{@code mongodb.driver.pool.checkedout}: the number of connections in use.</li>
+ *     <li>{@code mongodb.driver.pool.waitqueuesize}: the number of threads waiting for a connection.</li>
+ * </ul>
+ */
+public class MongoConnectionPoolMetrics extends ConnectionPoolListenerAdapter {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<ServerId, AtomicInteger> poolSize = new ConcurrentHashMap<>();
+
+    private final Map<ServerId, AtomicInteger> checkedOutCount = new ConcurrentHashMap<>();
+
+    private final Map<ServerId, AtomicInteger> waitQueueSize = new ConcurrentHashMap<>();
+
+    private final Map<ServerId, List<Meter>> meters = new ConcurrentHashMap<>();
+
+    public MongoConnectionPoolMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void connectionPoolOpened(ConnectionPoolOpenedEvent event) {
+        ServerId serverId = event.getServerId();
+        Tags tags = Tags.of("cluster.id", serverId.getClusterId().getValue(), "server.address", serverId.getAddress().toString());
+        List<Meter> serverMeters = new ArrayList<>();
+        serverMeters.add(register("mongodb.driver.pool.size", "Number of open connections of the pool", tags, poolSize, serverId));
+        serverMeters.add(register("mongodb.driver.pool.checkedout", "Number of connections of the pool in use", tags, checkedOutCount, serverId));
+        serverMeters.add(register("mongodb.driver.pool.waitqueuesize", "Number of threads waiting for a connection of the pool", tags,
+            waitQueueSize, serverId));
+        meters.put(serverId, serverMeters);
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        ServerId serverId = event.getServerId();
+        List<Meter> serverMeters = meters.remove(serverId);
+        if (serverMeters != null) {
+            serverMeters.forEach(meterRegistry::remove);
+        }
+        poolSize.remove(serverId);
+        checkedOutCount.remove(serverId);
+        waitQueueSize.remove(serverId);
+    }
+
+    @Override
+    public void connectionAdded(ConnectionAddedEvent event) {
+        add(poolSize, event.getConnectionId().getServerId(), 1);
+    }
+
+    @Override
+    public void connectionRemoved(ConnectionRemovedEvent event) {
+        add(poolSize, event.getConnectionId().getServerId(), -1);
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        add(checkedOutCount, event.getConnectionId().getServerId(), 1);
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        add(checkedOutCount, event.getConnectionId().getServerId(), -1);
+    }
+
+    @Override
+    public void waitQueueEntered(ConnectionPoolWaitQueueEnteredEvent event) {
+        add(waitQueueSize, event.getServerId(), 1);
+    }
+
+    @Override
+    public void waitQueueExited(ConnectionPoolWaitQueueExitedEvent event) {
+        add(waitQueueSize, event.getServerId(), -1);
+    }
+
+    private Meter register(String name, String description, Tags tags, Map<ServerId, AtomicInteger> values, ServerId serverId) {
+        AtomicInteger value = values.computeIfAbsent(serverId, id -> new AtomicInteger());
+        return Gauge.builder(name, value, AtomicInteger::get)
+            .description(description)
+            .tags(tags)
+            .register(meterRegistry);
+    }
+
+    private static void add(Map<ServerId, AtomicInteger> values, ServerId serverId, int delta) {
+        AtomicInteger value = values.get(serverId);
+        if (value != null) {
+            value.addAndGet(delta);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+
+import com.github.mongobee.changeset.ChangeLog;
+import com.github.mongobee.changeset.ChangeSet;
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stores the relationship between authors and books on the book side only.
+ * <p>
+ * The references to the books of an author, once stored in the {@code book} array of the author, are
+ * moved to the books, by unordered bulk writes of {@link #BATCH_SIZE} books.
+ */
+@ChangeLog(order = "004")
+public class AuthorBooksMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Same id as when this change set was part of the CatalogIndexesMigration, so that it is not run again
+    @ChangeSet(order = "01", author = "initiator", id = "04-moveAuthorBooksToBooks")
+    public void moveAuthorBooksToBooks(MongoTemplate mongoTemplate) {
+        String authorCollection = mongoTemplate.getCollectionName(Author.class);
+        MongoCollection<Document> books = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Book.class));
+        Query authors = new Query(Criteria.where("book").exists(true));
+        authors.fields().include("name").include("book");
+        List<WriteModel<Document>> updates = new ArrayList<>(BATCH_SIZE);
+        try (CloseableIterator<Document> iterator = mongoTemplate.stream(authors, Document.class, authorCollection)) {
+            while (iterator.hasNext()) {
+                Document author = iterator.next();
+                DBRef reference = new DBRef(authorCollection, author.get("_id"));
+                for (Object book : author.get("book", Collections.emptyList())) {
+                    Object bookId = book instanceof DBRef ? ((DBRef) book).getId() : book;
+                    // The books already referencing an author keep it
+                    updates.add(new UpdateOneModel<>(Filters.and(Filters.eq("_id", bookId), Filters.exists("name", false)),
+                        Updates.combine(Updates.set("name", reference), Updates.set("author_name", author.getString("name")))));
+                    if (updates.size() == BATCH_SIZE) {
+                        books.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+                        updates.clear();
+                    }
+                }
+            }
+        }
+        if (!updates.isEmpty()) {
+            books.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        }
+        mongoTemplate.updateMulti(new Query(Criteria.where("book").exists(true)), new Update().unset("book"), authorCollection);
+    }
+}
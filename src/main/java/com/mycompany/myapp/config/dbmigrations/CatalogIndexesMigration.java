@@ -0,0 +1,89 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+
+import com.github.mongobee.changeset.ChangeLog;
+import com.github.mongobee.changeset.ChangeSet;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the indexes backing the sortable and filterable fields of the catalog.
+ * <p>
+ * Without them, sorting the {@code book} and {@code author} collections is done in memory
+ * and fails as soon as the sorted data outgrows the 32MB limit of MongoDB.
+ */
+@ChangeLog(order = "002")
+public class CatalogIndexesMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-addBookIndexes")
+    public void addBookIndexes(MongoTemplate mongoTemplate) {
+        IndexOperations bookIndexes = mongoTemplate.indexOps(Book.class);
+        bookIndexes.ensureIndex(new Index().on("title", Sort.Direction.ASC).named("title"));
+        bookIndexes.ensureIndex(new Index().on("publication_date", Sort.Direction.ASC).named("publication_date"));
+        bookIndexes.ensureIndex(new Index().on("price", Sort.Direction.ASC).named("price"));
+        // Also serves lookups on the author reference alone, as it is the index prefix
+        bookIndexes.ensureIndex(new Index()
+            .on(BookRepository.AUTHOR_ID_FIELD, Sort.Direction.ASC)
+            .on("publication_date", Sort.Direction.DESC)
+            .named("author_publication_date"));
+    }
+
+    @ChangeSet(order = "02", author = "initiator", id = "02-addAuthorIndexes")
+    public void addAuthorIndexes(MongoTemplate mongoTemplate) {
+        IndexOperations authorIndexes = mongoTemplate.indexOps(Author.class);
+        authorIndexes.ensureIndex(new Index().on("name", Sort.Direction.ASC).named("name"));
+        authorIndexes.ensureIndex(new Index().on("birth_date", Sort.Direction.ASC).named("birth_date"));
+    }
+
+    @ChangeSet(order = "03", author = "initiator", id = "03-addBookAuthorName")
+    public void addBookAuthorName(MongoTemplate mongoTemplate) {
+        MongoCollection<Document> books = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Book.class));
+        Query authors = new Query();
+        authors.fields().include("name");
+        // The books of an author are updated at once, by unordered bulk writes of BATCH_SIZE authors
+        List<WriteModel<Document>> updates = new ArrayList<>(BATCH_SIZE);
+        try (CloseableIterator<Document> iterator = mongoTemplate.stream(authors, Document.class, mongoTemplate.getCollectionName(Author.class))) {
+            while (iterator.hasNext()) {
+                Document author = iterator.next();
+                updates.add(new UpdateManyModel<>(Filters.eq(BookRepository.AUTHOR_ID_FIELD, author.get("_id")),
+                    Updates.set("author_name", author.getString("name"))));
+                if (updates.size() == BATCH_SIZE) {
+                    books.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+                    updates.clear();
+                }
+            }
+        }
+        if (!updates.isEmpty()) {
+            books.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        }
+        mongoTemplate.indexOps(Book.class).ensureIndex(new Index().on("author_name", Sort.Direction.ASC).named("author_name"));
+    }
+
+    @ChangeSet(order = "04", author = "initiator", id = "05-addAuthorStatisticsIndex")
+    public void addAuthorStatisticsIndex(MongoTemplate mongoTemplate) {
+        // Serves the authors with the most books, read with the statistics; kept when the nightly rebuild replaces the collection
+        mongoTemplate.indexOps("book_statistics_author").ensureIndex(new Index()
+            .on("count", Sort.Direction.DESC)
+            .on("_id", Sort.Direction.ASC)
+            .named("count_id"));
+    }
+}
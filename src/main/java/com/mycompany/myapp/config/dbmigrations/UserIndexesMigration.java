@@ -0,0 +1,38 @@
+package com.mycompany.myapp.config.dbmigrations;
+
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+
+import com.github.mongobee.changeset.ChangeLog;
+import com.github.mongobee.changeset.ChangeSet;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+/**
+ * Creates the unique indexes of the users.
+ * <p>
+ * The login and email indexes let the registration rely on an atomic insert rather than on lookups
+ * made beforehand, and the activation and reset key indexes serve the lookups of these keys. The keys
+ * are only set until the account is activated or the password reset, so their indexes are sparse.
+ */
+@ChangeLog(order = "003")
+public class UserIndexesMigration {
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-addUniqueUserIndexes")
+    public void addUniqueUserIndexes(MongoTemplate mongoTemplate) {
+        IndexOperations userIndexes = mongoTemplate.indexOps(User.class);
+        // Replaces the plain indexes created from the former @Indexed login and email fields
+        for (IndexInfo index : userIndexes.getIndexInfo()) {
+            if ((UserRepository.LOGIN_INDEX.equals(index.getName()) || UserRepository.EMAIL_INDEX.equals(index.getName())) && !index.isUnique()) {
+                userIndexes.dropIndex(index.getName());
+            }
+        }
+        userIndexes.ensureIndex(new Index().on("login", Sort.Direction.ASC).named(UserRepository.LOGIN_INDEX).unique());
+        userIndexes.ensureIndex(new Index().on("email", Sort.Direction.ASC).named(UserRepository.EMAIL_INDEX).unique().sparse());
+        userIndexes.ensureIndex(new Index().on("activation_key", Sort.Direction.ASC).named("activation_key").unique().sparse());
+        userIndexes.ensureIndex(new Index().on("reset_key", Sort.Direction.ASC).named("reset_key").unique().sparse());
+    }
+}
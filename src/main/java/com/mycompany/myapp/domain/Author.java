@@ -1,31 +1,27 @@
 package com.mycompany.myapp.domain;
 
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Field;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import javax.validation.constraints.*;
 
-import org.springframework.data.elasticsearch.annotations.FieldType;
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.Objects;
 
 /**
  * A Author.
+ * <p>
+ * The books of an author are not stored with it: the relationship is stored on the book side, in the
+ * indexed {@link Book#getName()} reference, as an array of references here would grow without bound.
  */
 @Document(collection = "author")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "author")
 public class Author implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Keyword)
     private String id;
 
     @NotNull
@@ -36,10 +32,6 @@ public class Author implements Serializable {
     @Field("birth_date")
     private LocalDate birthDate;
 
-    @DBRef
-    @Field("book")
-    private Set<Book> books = new HashSet<>();
-
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
     public String getId() {
         return id;
@@ -75,30 +67,6 @@ public class Author implements Serializable {
         this.birthDate = birthDate;
     }
 
-    public Set<Book> getBooks() {
-        return books;
-    }
-
-    public Author books(Set<Book> books) {
-        this.books = books;
-        return this;
-    }
-
-    public Author addBook(Book book) {
-        this.books.add(book);
-        // book.setAuthor(this);
-        return this;
-    }
-
-    public Author removeBook(Book book) {
-        this.books.remove(book);
-        // book.setAuthor(null);
-        return this;
-    }
-
-    public void setBooks(Set<Book> books) {
-        this.books = books;
-    }
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here, do not remove
 
     @Override
@@ -112,9 +80,13 @@ public class Author implements Serializable {
         return id != null && id.equals(((Author) o).id);
     }
 
+    /**
+     * Hashes by id, consistently with {@link #equals(Object)}. Unsaved entities all hash to {@code 0}: an entity
+     * must not be held in a hash collection while it gets its id, as it would then move to another bucket.
+     */
     @Override
     public int hashCode() {
-        return 31;
+        return Objects.hashCode(id);
     }
 
     @Override
@@ -8,7 +8,6 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import javax.validation.constraints.*;
 
-import org.springframework.data.elasticsearch.annotations.FieldType;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -18,13 +17,11 @@ import java.util.Objects;
  * A Book.
  */
 @Document(collection = "book")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "book")
 public class Book implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @org.springframework.data.elasticsearch.annotations.Field(type = FieldType.Keyword)
     private String id;
 
     @NotNull
@@ -48,6 +45,13 @@ public class Book implements Serializable {
     @Field("name")
     private Author name;
 
+    /**
+     * Name of the author, copied from {@link #name} so that books can be listed, sorted and filtered
+     * by author name without resolving the reference.
+     */
+    @Field("author_name")
+    private String authorName;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
     public String getId() {
         return id;
@@ -121,6 +125,19 @@ public class Book implements Serializable {
     public void setName(Author author) {
         this.name = author;
     }
+
+    public String getAuthorName() {
+        return authorName;
+    }
+
+    public Book authorName(String authorName) {
+        this.authorName = authorName;
+        return this;
+    }
+
+    public void setAuthorName(String authorName) {
+        this.authorName = authorName;
+    }
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here, do not remove
 
     @Override
@@ -134,9 +151,13 @@ public class Book implements Serializable {
         return id != null && id.equals(((Book) o).id);
     }
 
+    /**
+     * Hashes by id, consistently with {@link #equals(Object)}. Unsaved entities all hash to {@code 0}: an entity
+     * must not be held in a hash collection while it gets its id, as it would then move to another bucket.
+     */
     @Override
     public int hashCode() {
-        return 31;
+        return Objects.hashCode(id);
     }
 
     @Override
@@ -147,6 +168,7 @@ public class Book implements Serializable {
             ", description='" + getDescription() + "'" +
             ", publicationDate='" + getPublicationDate() + "'" +
             ", price=" + getPrice() +
+            ", authorName='" + getAuthorName() + "'" +
             "}";
     }
 }
@@ -5,7 +5,6 @@ import com.mycompany.myapp.config.Constants;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
 
@@ -17,6 +16,7 @@ import java.io.Serializable;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -35,7 +35,6 @@ public class User extends AbstractAuditingEntity implements Serializable {
     @NotNull
     @Pattern(regexp = Constants.LOGIN_REGEX)
     @Size(min = 1, max = 50)
-    @Indexed
     private String login;
 
     @JsonIgnore
@@ -53,7 +52,6 @@ public class User extends AbstractAuditingEntity implements Serializable {
 
     @Email
     @Size(min = 5, max = 254)
-    @Indexed
     private String email;
 
     private boolean activated = false;
@@ -198,9 +196,13 @@ public class User extends AbstractAuditingEntity implements Serializable {
         return id != null && id.equals(((User) o).id);
     }
 
+    /**
+     * Hashes by id, consistently with {@link #equals(Object)}. Unsaved entities all hash to {@code 0}: an entity
+     * must not be held in a hash collection while it gets its id, as it would then move to another bucket.
+     */
     @Override
     public int hashCode() {
-        return 31;
+        return Objects.hashCode(id);
     }
 
     @Override
@@ -0,0 +1,104 @@
+package com.mycompany.myapp.domain.search;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.DateFormat;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * The search document of an {@link com.mycompany.myapp.domain.Author}.
+ * <p>
+ * The books of the author are only counted, so that updating a book never rewrites its author document.
+ */
+@Document(indexName = "author", type = "author")
+@Setting(settingPath = "/config/elasticsearch/autocomplete-settings.json")
+public class AuthorDocument implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Field(type = FieldType.Keyword)
+    private String id;
+
+    @MultiField(
+        mainField = @Field(type = FieldType.Text),
+        otherFields = {
+            @InnerField(suffix = "keyword", type = FieldType.Keyword),
+            @InnerField(suffix = "autocomplete", type = FieldType.Text, analyzer = "autocomplete", searchAnalyzer = "standard")
+        }
+    )
+    private String name;
+
+    @Field(type = FieldType.Date, format = DateFormat.date)
+    private LocalDate birthDate;
+
+    @Field(type = FieldType.Long)
+    private long bookCount;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+
+    public void setBirthDate(LocalDate birthDate) {
+        this.birthDate = birthDate;
+    }
+
+    public long getBookCount() {
+        return bookCount;
+    }
+
+    public void setBookCount(long bookCount) {
+        this.bookCount = bookCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AuthorDocument)) {
+            return false;
+        }
+        return id != null && id.equals(((AuthorDocument) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // Documents are only built from saved entities, so their id does not change once they are hashed
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorDocument{" +
+            "id=" + getId() +
+            ", name='" + getName() + "'" +
+            ", birthDate='" + getBirthDate() + "'" +
+            ", bookCount=" + getBookCount() +
+            "}";
+    }
+}
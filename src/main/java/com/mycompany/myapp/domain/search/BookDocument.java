@@ -0,0 +1,143 @@
+package com.mycompany.myapp.domain.search;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.DateFormat;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * The search document of a {@link com.mycompany.myapp.domain.Book}.
+ * <p>
+ * The author is flattened to its id and name, so that a book document never embeds another document.
+ */
+@Document(indexName = "book", type = "book")
+@Setting(settingPath = "/config/elasticsearch/autocomplete-settings.json")
+public class BookDocument implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Field(type = FieldType.Keyword)
+    private String id;
+
+    @MultiField(
+        mainField = @Field(type = FieldType.Text),
+        otherFields = {
+            @InnerField(suffix = "keyword", type = FieldType.Keyword),
+            @InnerField(suffix = "autocomplete", type = FieldType.Text, analyzer = "autocomplete", searchAnalyzer = "standard")
+        }
+    )
+    private String title;
+
+    @Field(type = FieldType.Text)
+    private String description;
+
+    @Field(type = FieldType.Date, format = DateFormat.date)
+    private LocalDate publicationDate;
+
+    @Field(type = FieldType.Double)
+    private BigDecimal price;
+
+    @Field(type = FieldType.Keyword)
+    private String authorId;
+
+    @MultiField(
+        mainField = @Field(type = FieldType.Text),
+        otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword)
+    )
+    private String authorName;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public LocalDate getPublicationDate() {
+        return publicationDate;
+    }
+
+    public void setPublicationDate(LocalDate publicationDate) {
+        this.publicationDate = publicationDate;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public String getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(String authorId) {
+        this.authorId = authorId;
+    }
+
+    public String getAuthorName() {
+        return authorName;
+    }
+
+    public void setAuthorName(String authorName) {
+        this.authorName = authorName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BookDocument)) {
+            return false;
+        }
+        return id != null && id.equals(((BookDocument) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // Documents are only built from saved entities, so their id does not change once they are hashed
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "BookDocument{" +
+            "id=" + getId() +
+            ", title='" + getTitle() + "'" +
+            ", publicationDate='" + getPublicationDate() + "'" +
+            ", price=" + getPrice() +
+            ", authorId='" + getAuthorId() + "'" +
+            ", authorName='" + getAuthorName() + "'" +
+            "}";
+    }
+}
@@ -1,6 +1,10 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Book;
+
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
@@ -13,4 +17,29 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface BookRepository extends MongoRepository<Book, String> {
 
+    /**
+     * Field holding the id of the author in the {@code name} DBRef of a book.
+     */
+    String AUTHOR_ID_FIELD = "name.$id";
+
+    /**
+     * Converts an author id to the value stored in the {@code $id} field of a DBRef.
+     *
+     * @param id the author id.
+     * @return the {@link ObjectId} of the author, or the id itself if it is not an {@link ObjectId}.
+     */
+    static Object toReferenceId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    /**
+     * Extracts the author id of the {@code name} field of a raw book document.
+     *
+     * @param author the {@code name} field, a {@link DBRef} or its {@link Document} form.
+     * @return the id of the author, or {@code null} if the book has no author.
+     */
+    static Object toAuthorId(Object author) {
+        return author instanceof DBRef ? ((DBRef) author).getId() :
+            author instanceof Document ? ((Document) author).get("$id") : null;
+    }
 }
@@ -0,0 +1,134 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Warns when a collection is sorted on a field which is not the leading key of an index.
+ * <p>
+ * Such sorts are done in memory by MongoDB, and fail once the sorted data outgrows 32MB.
+ * The expected indexes are created by {@link com.mycompany.myapp.config.dbmigrations.CatalogIndexesMigration}.
+ * <p>
+ * The indexed fields are read again every {@link #REFRESH_INTERVAL} milliseconds, so that the indexes created
+ * or dropped afterwards, by a migration or by hand, are taken into account.
+ */
+@Component
+public class SortIndexVerifier {
+
+    private static final String ID_FIELD = "_id";
+
+    private static final long REFRESH_INTERVAL = 5 * 60 * 1000L;
+
+    private static final Map<Class<?>, List<String>> SORTABLE_PROPERTIES;
+
+    static {
+        Map<Class<?>, List<String>> sortableProperties = new HashMap<>();
+        sortableProperties.put(Book.class, Arrays.asList("title", "publicationDate", "price", "authorName"));
+        sortableProperties.put(Author.class, Arrays.asList("name", "birthDate"));
+        SORTABLE_PROPERTIES = Collections.unmodifiableMap(sortableProperties);
+    }
+
+    private final Logger log = LoggerFactory.getLogger(SortIndexVerifier.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Map<Class<?>, Set<String>> indexedFields = new ConcurrentHashMap<>();
+
+    private final Set<String> reportedSorts = ConcurrentHashMap.newKeySet();
+
+    public SortIndexVerifier(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Checks at startup that every sortable property of the catalog is backed by an index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifySortableProperties() {
+        indexedFields.clear();
+        SORTABLE_PROPERTIES.forEach((entityClass, properties) ->
+            properties.forEach(property -> {
+                if (!isIndexed(entityClass, property)) {
+                    log.warn("No index found on {}.{}, sorting on it will be done in memory",
+                        mongoTemplate.getCollectionName(entityClass), getFieldName(entityClass, property));
+                }
+            }));
+    }
+
+    /**
+     * Reads the indexed fields again, and warns about the sortable properties whose index was dropped.
+     */
+    @Scheduled(fixedDelay = REFRESH_INTERVAL, initialDelay = REFRESH_INTERVAL)
+    public void refreshIndexedFields() {
+        SORTABLE_PROPERTIES.forEach((entityClass, properties) -> {
+            Set<String> previousFields = indexedFields.get(entityClass);
+            Set<String> fields = loadIndexedFields(entityClass);
+            indexedFields.put(entityClass, fields);
+            for (String property : properties) {
+                String fieldName = getFieldName(entityClass, property);
+                if (fields.contains(fieldName)) {
+                    // Reported again if its index is dropped later
+                    reportedSorts.remove(entityClass.getName() + '.' + fieldName);
+                } else if (previousFields != null && previousFields.contains(fieldName)) {
+                    log.warn("The index on {}.{} was dropped, sorting on it will be done in memory",
+                        mongoTemplate.getCollectionName(entityClass), fieldName);
+                }
+            }
+        });
+    }
+
+    /**
+     * Logs a warning, once per field, if the requested sort cannot use an index.
+     *
+     * @param entityClass the sorted entity.
+     * @param sort the requested sort.
+     */
+    public void verify(Class<?> entityClass, Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!isIndexed(entityClass, order.getProperty())) {
+                String fieldName = getFieldName(entityClass, order.getProperty());
+                if (reportedSorts.add(entityClass.getName() + '.' + fieldName)) {
+                    log.warn("Requested sort on {}.{} is not backed by an index",
+                        mongoTemplate.getCollectionName(entityClass), fieldName);
+                }
+            }
+        }
+    }
+
+    private boolean isIndexed(Class<?> entityClass, String property) {
+        String fieldName = getFieldName(entityClass, property);
+        return ID_FIELD.equals(fieldName) ||
+            indexedFields.computeIfAbsent(entityClass, this::loadIndexedFields).contains(fieldName);
+    }
+
+    private Set<String> loadIndexedFields(Class<?> entityClass) {
+        Set<String> fields = new HashSet<>();
+        for (IndexInfo indexInfo : mongoTemplate.indexOps(entityClass).getIndexInfo()) {
+            if (!indexInfo.getIndexFields().isEmpty()) {
+                fields.add(indexInfo.getIndexFields().get(0).getKey());
+            }
+        }
+        return fields;
+    }
+
+    private String getFieldName(Class<?> entityClass, String property) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(entityClass);
+        MongoPersistentProperty persistentProperty = entity == null ? null : entity.getPersistentProperty(property);
+        return persistentProperty == null ? property : persistentProperty.getFieldName();
+    }
+}
@@ -9,9 +9,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
-import java.time.Instant;
 
 /**
  * Spring Data MongoDB repository for the {@link User} entity.
@@ -23,9 +21,17 @@ public interface UserRepository extends MongoRepository<User, String> {
 
     String USERS_BY_EMAIL_CACHE = "usersByEmail";
 
-    Optional<User> findOneByActivationKey(String activationKey);
+    /**
+     * Name of the unique index on the login of the users.
+     */
+    String LOGIN_INDEX = "login";
+
+    /**
+     * Name of the unique index on the email of the users.
+     */
+    String EMAIL_INDEX = "email";
 
-    List<User> findAllByActivatedIsFalseAndCreatedDateBefore(Instant dateTime);
+    Optional<User> findOneByActivationKey(String activationKey);
 
     Optional<User> findOneByResetKey(String resetKey);
 
@@ -1,10 +1,10 @@
 package com.mycompany.myapp.repository.search;
 
-import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.search.AuthorDocument;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
- * Spring Data Elasticsearch repository for the {@link Author} entity.
+ * Spring Data Elasticsearch repository for the {@link AuthorDocument} search document.
  */
-public interface AuthorSearchRepository extends ElasticsearchRepository<Author, String> {
+public interface AuthorSearchRepository extends ElasticsearchRepository<AuthorDocument, String> {
 }
@@ -1,10 +1,10 @@
 package com.mycompany.myapp.repository.search;
 
-import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.search.BookDocument;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
- * Spring Data Elasticsearch repository for the {@link Book} entity.
+ * Spring Data Elasticsearch repository for the {@link BookDocument} search document.
  */
-public interface BookSearchRepository extends ElasticsearchRepository<Book, String> {
+public interface BookSearchRepository extends ElasticsearchRepository<BookDocument, String> {
 }
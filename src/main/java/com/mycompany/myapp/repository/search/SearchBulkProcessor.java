@@ -0,0 +1,216 @@
+package com.mycompany.myapp.repository.search;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.searchbox.action.BulkableAction;
+import io.searchbox.client.JestClient;
+import io.searchbox.core.Bulk;
+import io.searchbox.core.BulkResult;
+import io.searchbox.core.Delete;
+import io.searchbox.core.DocumentResult;
+import io.searchbox.core.Index;
+import io.searchbox.core.Update;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers index, update and delete requests, and sends them to Elasticsearch in bulk requests.
+ * <p>
+ * A bulk request is sent as soon as {@code application.elasticsearch.bulk.actions} requests are
+ * buffered, and at the latest {@code application.elasticsearch.bulk.flush-interval} milliseconds after
+ * the previous flush. Writes are therefore only eventually visible in search results: this is meant
+ * for the writes of many documents at once, not for the ones of the REST resources.
+ * <p>
+ * Bulk requests are sent one at a time, in the order their requests were buffered, so that a write of a
+ * document never overtakes an earlier write of the same document.
+ * <p>
+ * Failures are logged and counted, but never thrown back to the caller.
+ */
+@Component
+public class SearchBulkProcessor {
+
+    public static final String BULK_SIZE_METRIC = "elasticsearch.client.bulk.size";
+
+    public static final String BULK_FAILURES_METRIC = "elasticsearch.client.bulk.failures";
+
+    private final Logger log = LoggerFactory.getLogger(SearchBulkProcessor.class);
+
+    private final JestClient jestClient;
+
+    private final EntityMapper entityMapper;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    private final MeterRegistry meterRegistry;
+
+    private final DistributionSummary bulkSize;
+
+    private final Counter bulkFailures;
+
+    private final int bulkActions;
+
+    private final Object sendLock = new Object();
+
+    private List<BulkableAction<DocumentResult>> pending = new ArrayList<>();
+
+    public SearchBulkProcessor(JestClient jestClient, EntityMapper entityMapper, ElasticsearchOperations elasticsearchOperations,
+                               MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        this.jestClient = jestClient;
+        this.entityMapper = entityMapper;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.meterRegistry = meterRegistry;
+        this.bulkActions = applicationProperties.getElasticsearch().getBulk().getActions();
+        this.bulkSize = DistributionSummary.builder(BULK_SIZE_METRIC)
+            .description("Number of actions of the Elasticsearch bulk requests")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.bulkFailures = Counter.builder(BULK_FAILURES_METRIC)
+            .description("Number of failed actions of the Elasticsearch bulk requests")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Buffers the indexing of a document.
+     *
+     * @param document the document to index, of a class annotated with {@code @Document}.
+     */
+    public void index(Object document) {
+        index(elasticsearchOperations.getPersistentEntityFor(document.getClass()).getIndexName(), document);
+    }
+
+    /**
+     * Buffers the indexing of a document into a given index, rather than into the index of its class.
+     *
+     * @param index the name of the index.
+     * @param document the document to index, of a class annotated with {@code @Document}.
+     */
+    public void index(String index, Object document) {
+        ElasticsearchPersistentEntity<?> entity = elasticsearchOperations.getPersistentEntityFor(document.getClass());
+        Object id = entity.getIdentifierAccessor(document).getIdentifier();
+        String source;
+        try {
+            source = entityMapper.mapToString(document);
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to map " + document.getClass().getSimpleName() + " " + id, e);
+        }
+        add(new Index.Builder(source)
+            .index(index)
+            .type(entity.getIndexType())
+            .id(id == null ? null : id.toString())
+            .build());
+    }
+
+    /**
+     * Buffers the partial update of a document: only the given fields are replaced.
+     *
+     * @param type the class of the document, annotated with {@code @Document}.
+     * @param id the id of the document.
+     * @param fields the new values of the fields, by field name.
+     */
+    public void update(Class<?> type, String id, Map<String, Object> fields) {
+        ElasticsearchPersistentEntity<?> entity = elasticsearchOperations.getPersistentEntityFor(type);
+        String payload;
+        try {
+            payload = entityMapper.mapToString(Collections.singletonMap("doc", fields));
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to map the update of " + type.getSimpleName() + " " + id, e);
+        }
+        add(new Update.Builder(payload)
+            .index(entity.getIndexName())
+            .type(entity.getIndexType())
+            .id(id)
+            .build());
+    }
+
+    /**
+     * Buffers the deletion of a document.
+     *
+     * @param type the class of the document, annotated with {@code @Document}.
+     * @param id the id of the document.
+     */
+    public void delete(Class<?> type, String id) {
+        ElasticsearchPersistentEntity<?> entity = elasticsearchOperations.getPersistentEntityFor(type);
+        add(new Delete.Builder(id)
+            .index(entity.getIndexName())
+            .type(entity.getIndexType())
+            .build());
+    }
+
+    /**
+     * Sends the buffered requests.
+     */
+    @Scheduled(fixedDelayString = "${application.elasticsearch.bulk.flush-interval:1000}")
+    @PreDestroy
+    public void flush() {
+        send(0);
+    }
+
+    private void add(BulkableAction<DocumentResult> action) {
+        boolean full;
+        synchronized (this) {
+            pending.add(action);
+            full = pending.size() >= bulkActions;
+        }
+        if (full) {
+            send(bulkActions);
+        }
+    }
+
+    private void send(int threshold) {
+        // Drained and sent under the same lock, so that the bulks are sent in the order they were drained
+        synchronized (sendLock) {
+            execute(drain(threshold));
+        }
+    }
+
+    private synchronized List<BulkableAction<DocumentResult>> drain(int threshold) {
+        if (pending.isEmpty() || pending.size() < threshold) {
+            return null;
+        }
+        List<BulkableAction<DocumentResult>> actions = pending;
+        pending = new ArrayList<>();
+        return actions;
+    }
+
+    private void execute(List<BulkableAction<DocumentResult>> actions) {
+        if (actions == null) {
+            return;
+        }
+        log.debug("Sending a bulk request of {} actions", actions.size());
+        bulkSize.record(actions.size());
+        Bulk bulk = new Bulk.Builder().addAction(actions).build();
+        BulkResult result = null;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            result = jestClient.execute(bulk);
+        } catch (IOException e) {
+            log.error("Failed to send a bulk request of {} actions", actions.size(), e);
+        } finally {
+            sample.stop(SearchClient.requestTimer(meterRegistry, "bulk", "_all", result != null && result.isSucceeded()));
+        }
+        if (result == null) {
+            bulkFailures.increment(actions.size());
+        } else if (!result.getFailedItems().isEmpty()) {
+            bulkFailures.increment(result.getFailedItems().size());
+            result.getFailedItems().forEach(item ->
+                log.warn("Failed to {} {}/{}/{}: {}", item.operation, item.index, item.type, item.id, item.error));
+        }
+    }
+}
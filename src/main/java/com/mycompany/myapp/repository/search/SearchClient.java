@@ -0,0 +1,239 @@
+package com.mycompany.myapp.repository.search;
+
+import com.mycompany.myapp.config.ElasticsearchConfiguration.CustomEntityMapper;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.searchbox.action.Action;
+import io.searchbox.client.JestClient;
+import io.searchbox.client.JestResult;
+import io.searchbox.core.Search;
+import io.searchbox.core.SearchResult;
+import io.searchbox.indices.DeleteIndex;
+import io.searchbox.indices.aliases.AddAliasMapping;
+import io.searchbox.indices.aliases.AliasMapping;
+import io.searchbox.indices.aliases.GetAliases;
+import io.searchbox.indices.aliases.ModifyAliases;
+import io.searchbox.indices.aliases.RemoveAliasMapping;
+import io.searchbox.indices.mapping.GetMapping;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Executes native Elasticsearch searches, for the features the Spring Data repositories do not expose
+ * (aggregations, suggestions, cursors...), and manages the aliases of the indices.
+ * <p>
+ * Hits are mapped with the same {@link CustomEntityMapper} as the one used by the repositories, and the
+ * latency of the searches is recorded in the {@value #REQUESTS_METRIC} timer.
+ */
+@Component
+public class SearchClient {
+
+    public static final String REQUESTS_METRIC = "elasticsearch.client.requests";
+
+    private final Logger log = LoggerFactory.getLogger(SearchClient.class);
+
+    private final JestClient jestClient;
+
+    private final CustomEntityMapper entityMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    public SearchClient(JestClient jestClient, CustomEntityMapper entityMapper, MeterRegistry meterRegistry) {
+        this.jestClient = jestClient;
+        this.entityMapper = entityMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Executes a search on an index.
+     *
+     * @param index the index to search.
+     * @param source the search request body.
+     * @return the search result.
+     * @throws ElasticsearchException if the search could not be executed.
+     */
+    public SearchResult search(String index, SearchSourceBuilder source) {
+        log.debug("Searching index {} with {}", index, source);
+        Search search = new Search.Builder(source.toString()).addIndex(index).build();
+        SearchResult result = null;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            result = jestClient.execute(search);
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to search index " + index, e);
+        } finally {
+            sample.stop(requestTimer(meterRegistry, "search", index, result != null && result.isSucceeded()));
+        }
+        if (!result.isSucceeded()) {
+            throw new ElasticsearchException("Failed to search index " + index + ": " + result.getErrorMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the mapping of a type, read from the index an alias points to.
+     *
+     * @param alias the alias, or the name of an index.
+     * @param type the type.
+     * @return the mapping of the type.
+     * @throws ElasticsearchException if the mapping could not be read.
+     */
+    public String getMapping(String alias, String type) {
+        JsonObject indices = execute(new GetMapping.Builder().addIndex(alias).addType(type).build(), "get mapping of " + alias)
+            .getJsonObject();
+        for (Map.Entry<String, JsonElement> index : indices.entrySet()) {
+            return index.getValue().getAsJsonObject().getAsJsonObject("mappings").getAsJsonObject(type).toString();
+        }
+        throw new ElasticsearchException("No mapping of " + type + " in " + alias);
+    }
+
+    /**
+     * Points an alias to a new index, and deletes the indices it pointed to.
+     * <p>
+     * Searches and writes switch atomically from the previous indices to the new one. An index named like the
+     * alias, as created before the indices were aliased, is removed in the same request as the alias is added,
+     * so that the name never misses.
+     *
+     * @param alias the alias.
+     * @param index the new index.
+     * @throws ElasticsearchException if the alias could not be moved.
+     */
+    public void moveAlias(String alias, String index) {
+        Set<String> previousIndices = new HashSet<>();
+        JestResult aliases = execute(new GetAliases.Builder().addIndex(alias).build(), "get aliases of " + alias);
+        ModifyAliases.Builder modifyAliases = new ModifyAliases.Builder(new AddAliasMapping.Builder(index, alias).build());
+        if (aliases.getJsonObject().has(alias)) {
+            // An index rather than an alias
+            modifyAliases.addAlias(new RemoveIndexMapping(alias));
+        } else {
+            aliases.getJsonObject().entrySet().forEach(previous -> previousIndices.add(previous.getKey()));
+        }
+        for (String previousIndex : previousIndices) {
+            modifyAliases.addAlias(new RemoveAliasMapping.Builder(previousIndex, alias).build());
+        }
+        execute(modifyAliases.build(), "move alias " + alias + " to " + index);
+        for (String previousIndex : previousIndices) {
+            execute(new DeleteIndex.Builder(previousIndex).build(), "delete index " + previousIndex);
+        }
+    }
+
+    private JestResult execute(Action<JestResult> action, String description) {
+        JestResult result;
+        try {
+            result = jestClient.execute(action);
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to " + description, e);
+        }
+        if (!result.isSucceeded()) {
+            throw new ElasticsearchException("Failed to " + description + ": " + result.getErrorMessage());
+        }
+        return result;
+    }
+
+    /**
+     * @param meterRegistry the registry of the timer.
+     * @param operation the operation of the request.
+     * @param index the index of the request.
+     * @param succeeded whether the request succeeded.
+     * @return the timer of the Elasticsearch requests with these tags.
+     */
+    public static Timer requestTimer(MeterRegistry meterRegistry, String operation, String index, boolean succeeded) {
+        return Timer.builder(REQUESTS_METRIC)
+            .description("Latency of the Elasticsearch requests")
+            .tags("operation", operation, "index", index, "outcome", succeeded ? "success" : "failure")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    /**
+     * Maps the {@code _source} of the hits of a search result.
+     *
+     * @param result the search result.
+     * @param type the type of the documents.
+     * @param <T> the type of the documents.
+     * @return the documents, in the order of the hits.
+     */
+    public <T> List<T> getHits(SearchResult result, Class<T> type) {
+        try {
+            return entityMapper.mapHits(result.getJsonString(), type);
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to map search hits to " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * @param result the search result.
+     * @return the total number of hits matching the search.
+     */
+    public long getTotalHits(SearchResult result) {
+        JsonObject hits = result.getJsonObject().getAsJsonObject("hits");
+        return hits == null ? 0 : hits.get("total").getAsLong();
+    }
+
+    /**
+     * @param result the search result.
+     * @return the sort values of the last hit, or {@code null} if there is no hit.
+     */
+    public JsonArray getLastSortValues(SearchResult result) {
+        JsonObject hits = result.getJsonObject().getAsJsonObject("hits");
+        if (hits == null || hits.getAsJsonArray("hits").size() == 0) {
+            return null;
+        }
+        JsonArray hitList = hits.getAsJsonArray("hits");
+        return hitList.get(hitList.size() - 1).getAsJsonObject().getAsJsonArray("sort");
+    }
+
+    /**
+     * @param result the search result.
+     * @param name the name of a bucket aggregation.
+     * @return the buckets of the aggregation, or an empty list if it is absent from the result.
+     */
+    public List<JsonObject> getBuckets(SearchResult result, String name) {
+        List<JsonObject> buckets = new ArrayList<>();
+        JsonObject aggregations = result.getJsonObject().getAsJsonObject("aggregations");
+        if (aggregations != null && aggregations.has(name)) {
+            for (JsonElement bucket : aggregations.getAsJsonObject(name).getAsJsonArray("buckets")) {
+                buckets.add(bucket.getAsJsonObject());
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * The {@code remove_index} action of the aliases API, which Jest does not provide: it deletes an index
+     * atomically with the other alias actions.
+     */
+    private static final class RemoveIndexMapping extends AliasMapping {
+
+        private final String index;
+
+        private RemoveIndexMapping(String index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getType() {
+            return "remove_index";
+        }
+
+        @Override
+        public List<Map<String, Object>> getData() {
+            return Collections.singletonList(Collections.<String, Object>singletonMap(getType(), Collections.singletonMap("index", index)));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.repository.AuthorityRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory registry of the {@link Authority} entities.
+ * <p>
+ * The {@code jhi_authority} collection only holds a handful of rarely changing authorities, so they are loaded
+ * once in an immutable snapshot, replaced as a whole by {@link #refresh()} when the collection changes. As the
+ * changes are only followed by the instance holding the change stream lease, and not at all when the change
+ * streams are disabled, the snapshot is also reloaded every five minutes. The {@link GrantedAuthority} lists
+ * built for the users are kept in the snapshot too, so that authenticating a user with the same authorities as
+ * a previous one allocates nothing.
+ */
+@Component
+public class AuthorityRegistry {
+
+    private static final long REFRESH_INTERVAL = 5 * 60 * 1000L;
+
+    private final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private final AuthorityRepository authorityRepository;
+
+    private volatile Snapshot snapshot;
+
+    public AuthorityRegistry(AuthorityRepository authorityRepository) {
+        this.authorityRepository = authorityRepository;
+    }
+
+    /**
+     * Reloads the authorities, once the migrations created them at startup, and whenever the collection changes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        List<Authority> authorities = authorityRepository.findAll();
+        log.debug("Loaded {} authorities", authorities.size());
+        snapshot = new Snapshot(authorities);
+    }
+
+    /**
+     * Reloads the authorities periodically, on every instance.
+     */
+    @Scheduled(fixedDelay = REFRESH_INTERVAL, initialDelay = REFRESH_INTERVAL)
+    public void refreshPeriodically() {
+        refresh();
+    }
+
+    /**
+     * Get an authority by name.
+     *
+     * @param name the name of the authority.
+     * @return the authority, or empty if it does not exist.
+     */
+    public Optional<Authority> find(String name) {
+        return Optional.ofNullable(getSnapshot().authorities.get(name));
+    }
+
+    /**
+     * Get the names of all the authorities.
+     *
+     * @return the unmodifiable list of the names.
+     */
+    public List<String> getAuthorityNames() {
+        return getSnapshot().names;
+    }
+
+    /**
+     * Get the granted authorities of a user.
+     *
+     * @param authorities the authorities of the user.
+     * @return the unmodifiable list of the granted authorities, shared by the users with the same authorities.
+     */
+    public List<GrantedAuthority> getGrantedAuthorities(Set<Authority> authorities) {
+        Snapshot current = getSnapshot();
+        List<GrantedAuthority> grantedAuthorities = current.grantedAuthorityLists.get(authorities);
+        if (grantedAuthorities == null) {
+            List<GrantedAuthority> list = new ArrayList<>(authorities.size());
+            for (Authority authority : authorities) {
+                GrantedAuthority grantedAuthority = current.grantedAuthorities.get(authority.getName());
+                list.add(grantedAuthority == null ? new SimpleGrantedAuthority(authority.getName()) : grantedAuthority);
+            }
+            grantedAuthorities = Collections.unmodifiableList(list);
+            current.grantedAuthorityLists.putIfAbsent(Collections.unmodifiableSet(new HashSet<>(authorities)), grantedAuthorities);
+        }
+        return grantedAuthorities;
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, Authority> authorities;
+
+        private final Map<String, GrantedAuthority> grantedAuthorities;
+
+        private final List<String> names;
+
+        private final ConcurrentMap<Set<Authority>, List<GrantedAuthority>> grantedAuthorityLists = new ConcurrentHashMap<>();
+
+        private Snapshot(List<Authority> authorities) {
+            Map<String, Authority> byName = new HashMap<>();
+            Map<String, GrantedAuthority> granted = new HashMap<>();
+            List<String> names = new ArrayList<>();
+            for (Authority authority : authorities) {
+                byName.put(authority.getName(), authority);
+                granted.put(authority.getName(), new SimpleGrantedAuthority(authority.getName()));
+                names.add(authority.getName());
+            }
+            this.authorities = Collections.unmodifiableMap(byName);
+            this.grantedAuthorities = Collections.unmodifiableMap(granted);
+            this.names = Collections.unmodifiableList(names);
+        }
+    }
+}
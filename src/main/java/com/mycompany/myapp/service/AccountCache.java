@@ -0,0 +1,74 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.security.SecurityUtils;
+import com.mycompany.myapp.service.dto.UserDTO;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Cache of the account of the current user, as returned by {@code GET /api/account}.
+ * <p>
+ * The client requests the account on every navigation, so it is cached by login, already serialized to JSON.
+ * The entries are evicted by the {@link UserService} whenever it modifies a user, and by the
+ * {@link UserCacheEvictor} of every instance when a user is modified by another instance or outside of the
+ * application. Change streams are not available on a standalone MongoDB, so the entries also expire after five
+ * minutes.
+ */
+@Service
+public class AccountCache {
+
+    public static final String ACCOUNTS_CACHE = "accounts";
+
+    private final Logger log = LoggerFactory.getLogger(AccountCache.class);
+
+    private final UserService userService;
+
+    private final CacheManager cacheManager;
+
+    private final ObjectWriter userDTOWriter;
+
+    public AccountCache(UserService userService, CacheManager cacheManager, ObjectMapper objectMapper) {
+        this.userService = userService;
+        this.cacheManager = cacheManager;
+        this.userDTOWriter = objectMapper.writerFor(UserDTO.class);
+    }
+
+    /**
+     * Get the account of the current user.
+     *
+     * @return the account of the current user serialized to JSON, or empty if the user could not be found.
+     */
+    public Optional<byte[]> getCurrentAccount() {
+        Optional<String> login = SecurityUtils.getCurrentUserLogin();
+        Cache accounts = cacheManager.getCache(ACCOUNTS_CACHE);
+        if (login.isPresent() && accounts != null) {
+            byte[] account = accounts.get(login.get(), byte[].class);
+            if (account != null) {
+                return Optional.of(account);
+            }
+        }
+        Optional<byte[]> account = userService.getUserWithAuthorities().map(user -> serialize(new UserDTO(user)));
+        if (login.isPresent() && accounts != null && account.isPresent()) {
+            log.debug("Caching the account of {}", login.get());
+            accounts.put(login.get(), account.get());
+        }
+        return account;
+    }
+
+    private byte[] serialize(UserDTO userDTO) {
+        try {
+            return userDTOWriter.writeValueAsBytes(userDTO);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the account of " + userDTO.getLogin(), e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Author;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.Document;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reindexes the changed authors, and publishes an {@link AuthorUpdatedEvent} for each of them, so that
+ * the author name of their books is updated, and the books reindexed in turn.
+ * <p>
+ * While the changes are followed, this handler is the only one publishing these events, including for
+ * the authors updated through the REST resource.
+ */
+@Component
+public class AuthorChangeHandler implements ChangeStreamHandler {
+
+    private final SearchIndexer searchIndexer;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final String collection;
+
+    public AuthorChangeHandler(SearchIndexer searchIndexer, ApplicationEventPublisher applicationEventPublisher, MongoTemplate mongoTemplate) {
+        this.searchIndexer = searchIndexer;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.collection = mongoTemplate.getCollectionName(Author.class);
+    }
+
+    @Override
+    public String getCollection() {
+        return collection;
+    }
+
+    @Override
+    public void handle(List<ChangeStreamDocument<Document>> changes) {
+        List<Document> authors = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        for (Map.Entry<String, Document> state : ChangeStreamHandler.latestStates(changes).entrySet()) {
+            if (state.getValue() == null) {
+                deletedIds.add(state.getKey());
+            } else {
+                authors.add(state.getValue());
+            }
+        }
+        searchIndexer.indexAuthors(authors, deletedIds);
+        for (Document author : authors) {
+            applicationEventPublisher.publishEvent(new AuthorUpdatedEvent(author.get("_id").toString(), author.getString("name")));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.mycompany.myapp.service;
+
+/**
+ * Event published once an author has been updated.
+ */
+public class AuthorUpdatedEvent {
+
+    private final String authorId;
+
+    private final String name;
+
+    public AuthorUpdatedEvent(String authorId, String name) {
+        this.authorId = authorId;
+        this.name = name;
+    }
+
+    public String getAuthorId() {
+        return authorId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorUpdatedEvent{" +
+            "authorId='" + authorId + '\'' +
+            ", name='" + name + '\'' +
+            "}";
+    }
+}
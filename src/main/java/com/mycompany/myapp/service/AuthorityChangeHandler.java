@@ -0,0 +1,37 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.security.AuthorityRegistry;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Reloads the {@link AuthorityRegistry} when the authorities change.
+ */
+@Component
+public class AuthorityChangeHandler implements ChangeStreamHandler {
+
+    private final AuthorityRegistry authorityRegistry;
+
+    private final String collection;
+
+    public AuthorityChangeHandler(AuthorityRegistry authorityRegistry, MongoTemplate mongoTemplate) {
+        this.authorityRegistry = authorityRegistry;
+        this.collection = mongoTemplate.getCollectionName(Authority.class);
+    }
+
+    @Override
+    public String getCollection() {
+        return collection;
+    }
+
+    @Override
+    public void handle(List<ChangeStreamDocument<Document>> changes) {
+        authorityRegistry.refresh();
+    }
+}
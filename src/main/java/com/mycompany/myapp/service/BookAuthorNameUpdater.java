@@ -0,0 +1,104 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.DatabaseConfiguration;
+import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service keeping the {@code authorName} of the books in sync with the name of their author.
+ * <p>
+ * The name is written with the book, and copied to all the books of an author when it is renamed.
+ * This fan-out is done in batches of {@link #BATCH_SIZE} books, so that renaming a prolific author
+ * does not lock the {@code book} collection in a single long update.
+ * <p>
+ * Authors and books are read from the primary: a name read from a lagging secondary would be copied
+ * to the books, and the books left outdated by the previous batches looked up again.
+ */
+@Service
+public class BookAuthorNameUpdater {
+
+    public static final int BATCH_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(BookAuthorNameUpdater.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public BookAuthorNameUpdater(@Qualifier(DatabaseConfiguration.PRIMARY_MONGO_TEMPLATE) MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Sets the {@code authorName} of a book to the name of its author, before it is saved.
+     * <p>
+     * The name is read from the database, as the author sent with the book may only hold an id.
+     *
+     * @param book the book to save.
+     */
+    public void fillAuthorName(Book book) {
+        String authorId = book.getName() == null ? null : book.getName().getId();
+        if (authorId == null) {
+            book.setAuthorName(null);
+            return;
+        }
+        Query query = new Query(Criteria.where("_id").is(authorId));
+        query.fields().include("name");
+        Author author = mongoTemplate.findOne(query, Author.class);
+        book.setAuthorName(author == null ? null : author.getName());
+    }
+
+    /**
+     * Copies the name of an updated author to its books, in the background.
+     *
+     * @param event the update of the author.
+     */
+    @Async
+    @EventListener
+    public void onAuthorUpdated(AuthorUpdatedEvent event) {
+        updateAuthorName(event.getAuthorId(), event.getName());
+    }
+
+    /**
+     * Copies the name of an author to its books which do not have it yet.
+     *
+     * @param authorId the id of the author.
+     * @param name the current name of the author.
+     * @return the number of updated books.
+     */
+    public long updateAuthorName(String authorId, String name) {
+        Criteria outdated = Criteria.where(BookRepository.AUTHOR_ID_FIELD).is(BookRepository.toReferenceId(authorId))
+            .and("authorName").ne(name);
+        Update update = new Update().set("authorName", name);
+        long updated = 0;
+        List<String> ids;
+        do {
+            Query batch = new Query(outdated).limit(BATCH_SIZE);
+            batch.fields().include("_id");
+            ids = mongoTemplate.find(batch, Book.class).stream().map(Book::getId).collect(Collectors.toList());
+            if (!ids.isEmpty()) {
+                // The filter is repeated, in case a book was concurrently moved to another author
+                Query books = new Query(Criteria.where("_id").in(ids)
+                    .and(BookRepository.AUTHOR_ID_FIELD).is(BookRepository.toReferenceId(authorId)));
+                updated += mongoTemplate.updateMulti(books, update, Book.class).getModifiedCount();
+            }
+        } while (ids.size() == BATCH_SIZE);
+        if (updated > 0) {
+            log.debug("Updated the author name of {} books of Author : {}", updated, authorId);
+        }
+        return updated;
+    }
+}
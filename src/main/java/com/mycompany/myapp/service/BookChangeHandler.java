@@ -0,0 +1,47 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Book;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reindexes the changed books.
+ */
+@Component
+public class BookChangeHandler implements ChangeStreamHandler {
+
+    private final SearchIndexer searchIndexer;
+
+    private final String collection;
+
+    public BookChangeHandler(SearchIndexer searchIndexer, MongoTemplate mongoTemplate) {
+        this.searchIndexer = searchIndexer;
+        this.collection = mongoTemplate.getCollectionName(Book.class);
+    }
+
+    @Override
+    public String getCollection() {
+        return collection;
+    }
+
+    @Override
+    public void handle(List<ChangeStreamDocument<Document>> changes) {
+        List<Document> books = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        for (Map.Entry<String, Document> state : ChangeStreamHandler.latestStates(changes).entrySet()) {
+            if (state.getValue() == null) {
+                deletedIds.add(state.getKey());
+            } else {
+                books.add(state.getValue());
+            }
+        }
+        searchIndexer.indexBooks(books, deletedIds);
+    }
+}
@@ -0,0 +1,113 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.BigDecimalConverters;
+import com.mycompany.myapp.domain.Book;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Converts the book prices stored as strings, as written before the {@link BigDecimalConverters}, to
+ * {@code Decimal128}.
+ * <p>
+ * The conversion runs in the background once the application is ready, by batches, on a single instance
+ * at a time. It is resumable: only the prices still stored as strings are selected, so an interrupted
+ * conversion goes on where it stopped at the next start, and is a single query once it is complete. Each
+ * update only matches the price it read, so a book written in the meantime is not overwritten.
+ */
+@Service
+public class BookPriceMigration {
+
+    private static final String LOCK_NAME = "bookPriceMigration";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(BookPriceMigration.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final SchedulerLock schedulerLock;
+
+    public BookPriceMigration(MongoTemplate mongoTemplate, SchedulerLock schedulerLock) {
+        this.mongoTemplate = mongoTemplate;
+        this.schedulerLock = schedulerLock;
+    }
+
+    /**
+     * Converts the remaining prices at startup.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        migrate();
+    }
+
+    /**
+     * Converts the prices stored as strings, unless another instance is already converting them.
+     *
+     * @return the number of converted prices.
+     */
+    public long migrate() {
+        AtomicLong converted = new AtomicLong();
+        schedulerLock.runLocked(LOCK_NAME, Duration.ofHours(1), Duration.ZERO, () -> converted.set(convertStringPrices()));
+        return converted.get();
+    }
+
+    private long convertStringPrices() {
+        MongoCollection<Document> books = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Book.class));
+        Bson stringPrice = Filters.type("price", BsonType.STRING);
+        Object lastId = null;
+        long converted = 0;
+        while (true) {
+            Bson filter = lastId == null ? stringPrice : Filters.and(stringPrice, Filters.gt("_id", lastId));
+            List<WriteModel<Document>> updates = new ArrayList<>(BATCH_SIZE);
+            int read = 0;
+            for (Document book : books.find(filter).projection(Projections.include("price")).sort(Sorts.ascending("_id")).limit(BATCH_SIZE)) {
+                read++;
+                lastId = book.get("_id");
+                String price = book.getString("price");
+                try {
+                    updates.add(new UpdateOneModel<>(Filters.and(Filters.eq("_id", lastId), Filters.eq("price", price)),
+                        Updates.set("price", new Decimal128(new BigDecimal(price.trim())))));
+                } catch (NumberFormatException e) {
+                    // Left as is, and skipped by the next batches
+                    log.warn("Book {} has an invalid price {}", lastId, price);
+                }
+            }
+            if (!updates.isEmpty()) {
+                converted += books.bulkWrite(updates, new BulkWriteOptions().ordered(false)).getModifiedCount();
+            }
+            if (read < BATCH_SIZE) {
+                break;
+            }
+            log.debug("Converted {} book prices", converted);
+        }
+        if (converted > 0) {
+            log.info("Converted {} book prices to Decimal128", converted);
+        }
+        return converted;
+    }
+}
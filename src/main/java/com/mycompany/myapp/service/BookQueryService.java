@@ -0,0 +1,181 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.service.dto.BookCriteria;
+
+import io.github.jhipster.service.filter.Filter;
+import io.github.jhipster.service.filter.RangeFilter;
+import io.github.jhipster.service.filter.StringFilter;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Service for executing complex queries for {@link Book} entities in the database.
+ * The main input is a {@link BookCriteria} which gets converted to a MongoDB {@link Query},
+ * in a way that all the filters must apply.
+ * It returns a {@link Page} of {@link Book} which fulfills the criteria.
+ */
+@Service
+public class BookQueryService {
+
+    private final Logger log = LoggerFactory.getLogger(BookQueryService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public BookQueryService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Return a {@link Page} of {@link Book} which matches the criteria from the database.
+     * The total is only counted when the page does not tell it by itself.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    public Page<Book> findByCriteria(BookCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}", criteria, page);
+        List<Book> content = mongoTemplate.find(createQuery(criteria).with(page), Book.class);
+        return PageableExecutionUtils.getPage(content, page, () -> countByCriteria(criteria));
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    public long countByCriteria(BookCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        return mongoTemplate.count(createQuery(criteria), Book.class);
+    }
+
+    /**
+     * Return a {@link Page} of the books of an author, through the index on the author reference.
+     *
+     * @param authorId the id of the author.
+     * @param page The page, which should be returned.
+     * @return the books of the author.
+     */
+    public Page<Book> findByAuthor(String authorId, Pageable page) {
+        log.debug("find by author : {}, page: {}", authorId, page);
+        Criteria byAuthor = Criteria.where(BookRepository.AUTHOR_ID_FIELD).is(BookRepository.toReferenceId(authorId));
+        List<Book> content = mongoTemplate.find(new Query(byAuthor).with(page), Book.class);
+        return PageableExecutionUtils.getPage(content, page, () -> mongoTemplate.count(new Query(byAuthor), Book.class));
+    }
+
+    /**
+     * Return the number of books of an author.
+     *
+     * @param authorId the id of the author.
+     * @return the number of books of the author.
+     */
+    public long countByAuthor(String authorId) {
+        log.debug("count by author : {}", authorId);
+        return mongoTemplate.count(new Query(Criteria.where(BookRepository.AUTHOR_ID_FIELD).is(BookRepository.toReferenceId(authorId))), Book.class);
+    }
+
+    /**
+     * Return the number of books of every author, in a single aggregation.
+     *
+     * @return the number of books by author id, authors without books being absent.
+     */
+    public Map<String, Long> countBooksByAuthor() {
+        log.debug("count books by author");
+        Map<String, Long> bookCounts = new HashMap<>();
+        // Aggregation field paths cannot reference "$id", so books are grouped by their whole author DBRef
+        List<Document> pipeline = Collections.singletonList(new Document("$group",
+            new Document("_id", "$name").append("count", new Document("$sum", 1))));
+        for (Document count : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Book.class)).aggregate(pipeline)) {
+            Object authorId = BookRepository.toAuthorId(count.get("_id"));
+            if (authorId != null) {
+                bookCounts.put(authorId.toString(), ((Number) count.get("count")).longValue());
+            }
+        }
+        return bookCounts;
+    }
+
+    /**
+     * Function to convert {@link BookCriteria} to a {@link Query}.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Query}.
+     */
+    protected Query createQuery(BookCriteria criteria) {
+        Query query = new Query();
+        if (criteria != null) {
+            List<Criteria> filters = new ArrayList<>();
+            addStringFilter(filters, "id", criteria.getId());
+            addStringFilter(filters, "title", criteria.getTitle());
+            addStringFilter(filters, "description", criteria.getDescription());
+            addRangeFilter(filters, "publicationDate", criteria.getPublicationDate());
+            addRangeFilter(filters, "price", criteria.getPrice());
+            addStringFilter(filters, "authorName", criteria.getAuthorName());
+            addFilter(filters, BookRepository.AUTHOR_ID_FIELD, criteria.getAuthorId(), BookRepository::toReferenceId);
+            if (!filters.isEmpty()) {
+                query.addCriteria(new Criteria().andOperator(filters.toArray(new Criteria[0])));
+            }
+        }
+        return query;
+    }
+
+    private static void addStringFilter(List<Criteria> filters, String field, StringFilter filter) {
+        addFilter(filters, field, filter, value -> value);
+        if (filter != null && filter.getContains() != null) {
+            filters.add(Criteria.where(field).regex(Pattern.compile(Pattern.quote(filter.getContains()), Pattern.CASE_INSENSITIVE)));
+        }
+    }
+
+    private static <T extends Comparable<? super T>> void addRangeFilter(List<Criteria> filters, String field, RangeFilter<T> filter) {
+        addFilter(filters, field, filter, value -> value);
+        if (filter == null) {
+            return;
+        }
+        if (filter.getGreaterThan() != null) {
+            filters.add(Criteria.where(field).gt(filter.getGreaterThan()));
+        }
+        if (filter.getGreaterOrEqualThan() != null) {
+            filters.add(Criteria.where(field).gte(filter.getGreaterOrEqualThan()));
+        }
+        if (filter.getLessThan() != null) {
+            filters.add(Criteria.where(field).lt(filter.getLessThan()));
+        }
+        if (filter.getLessOrEqualThan() != null) {
+            filters.add(Criteria.where(field).lte(filter.getLessOrEqualThan()));
+        }
+    }
+
+    private static <T> void addFilter(List<Criteria> filters, String field, Filter<T> filter, Function<T, Object> valueMapper) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.getEquals() != null) {
+            filters.add(Criteria.where(field).is(valueMapper.apply(filter.getEquals())));
+        }
+        if (filter.getIn() != null) {
+            filters.add(Criteria.where(field).in(filter.getIn().stream().map(valueMapper).collect(Collectors.toList())));
+        }
+        if (filter.getSpecified() != null) {
+            filters.add(filter.getSpecified() ? Criteria.where(field).ne(null) : Criteria.where(field).is(null));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.search.BookDocument;
+import com.mycompany.myapp.repository.search.SearchClient;
+import com.mycompany.myapp.service.dto.BookFacetedPage;
+import com.mycompany.myapp.service.dto.BookFacetsDTO;
+import com.mycompany.myapp.service.dto.FacetBucketDTO;
+import com.mycompany.myapp.service.mapper.SearchDocumentMapper;
+
+import com.google.gson.JsonObject;
+import io.searchbox.core.SearchResult;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.dateHistogram;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.histogram;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
+
+/**
+ * Service for searching {@link Book} entities with facets.
+ * <p>
+ * Hits and facets are fetched in a single Elasticsearch request. Facets only depend on the query,
+ * so they are cached: a query whose facets are cached is executed without aggregations.
+ */
+@Service
+public class BookSearchService {
+
+    public static final String BOOK_FACETS_CACHE = "bookFacets";
+
+    private static final String BOOK_INDEX = "book";
+
+    private static final String PRICE_BANDS = "price_bands";
+
+    private static final String PUBLICATION_YEARS = "publication_years";
+
+    private static final String TOP_AUTHORS = "top_authors";
+
+    private static final String AUTHOR_NAME_FIELD = "authorName.keyword";
+
+    private static final double PRICE_BAND_WIDTH = 10;
+
+    private static final int TOP_AUTHORS_SIZE = 10;
+
+    private final Logger log = LoggerFactory.getLogger(BookSearchService.class);
+
+    private final SearchClient searchClient;
+
+    private final CacheManager cacheManager;
+
+    private final SearchDocumentMapper searchDocumentMapper;
+
+    public BookSearchService(SearchClient searchClient, CacheManager cacheManager, SearchDocumentMapper searchDocumentMapper) {
+        this.searchClient = searchClient;
+        this.cacheManager = cacheManager;
+        this.searchDocumentMapper = searchDocumentMapper;
+    }
+
+    /**
+     * Search for a page of books, with the facets of all the books matching the query.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @return the page of matching books, with their facets.
+     */
+    public BookFacetedPage searchWithFacets(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Books with facets for query {}", query);
+        Cache facetsCache = cacheManager.getCache(BOOK_FACETS_CACHE);
+        BookFacetsDTO facets = facetsCache == null ? null : facetsCache.get(query, BookFacetsDTO.class);
+
+        SearchSourceBuilder source = new SearchSourceBuilder()
+            .query(queryStringQuery(query))
+            .from((int) pageable.getOffset())
+            .size(pageable.getPageSize());
+        pageable.getSort().forEach(order -> source.sort(SortBuilders.fieldSort(order.getProperty())
+            .order(order.isAscending() ? SortOrder.ASC : SortOrder.DESC)));
+        if (facets == null) {
+            source
+                .aggregation(histogram(PRICE_BANDS).field("price").interval(PRICE_BAND_WIDTH).minDocCount(1))
+                .aggregation(dateHistogram(PUBLICATION_YEARS).field("publicationDate")
+                    .dateHistogramInterval(DateHistogramInterval.YEAR).format("yyyy").minDocCount(1))
+                .aggregation(terms(TOP_AUTHORS).field(AUTHOR_NAME_FIELD).size(TOP_AUTHORS_SIZE));
+        }
+
+        SearchResult result = searchClient.search(BOOK_INDEX, source);
+        if (facets == null) {
+            facets = toFacets(result);
+            if (facetsCache != null) {
+                facetsCache.put(query, facets);
+            }
+        }
+        List<Book> books = searchClient.getHits(result, BookDocument.class).stream()
+            .map(searchDocumentMapper::bookDocumentToBook)
+            .collect(Collectors.toList());
+        return new BookFacetedPage(books, pageable, searchClient.getTotalHits(result), facets);
+    }
+
+    /**
+     * Evicts the cached facets, as they are outdated once a book is modified.
+     */
+    public void clearFacetsCache() {
+        Cache facetsCache = cacheManager.getCache(BOOK_FACETS_CACHE);
+        if (facetsCache != null) {
+            facetsCache.clear();
+        }
+    }
+
+    private BookFacetsDTO toFacets(SearchResult result) {
+        BookFacetsDTO facets = new BookFacetsDTO();
+        facets.setPriceBands(toBuckets(result, PRICE_BANDS,
+            bucket -> new BigDecimal(bucket.get("key").getAsString()).stripTrailingZeros().toPlainString()));
+        facets.setPublicationYears(toBuckets(result, PUBLICATION_YEARS, bucket -> bucket.get("key_as_string").getAsString()));
+        facets.setTopAuthors(toBuckets(result, TOP_AUTHORS, bucket -> bucket.get("key").getAsString()));
+        return facets;
+    }
+
+    private List<FacetBucketDTO> toBuckets(SearchResult result, String aggregation, Function<JsonObject, String> keyMapper) {
+        return searchClient.getBuckets(result, aggregation).stream()
+            .map(bucket -> new FacetBucketDTO(keyMapper.apply(bucket), bucket.get("doc_count").getAsLong()))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,388 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.DatabaseConfiguration;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.service.dto.BookStatisticsDTO;
+import com.mycompany.myapp.service.dto.StatisticsBucketDTO;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Service maintaining the statistics of the catalog.
+ * <p>
+ * The {@code book_statistics_author} and {@code book_statistics_year} collections hold one document per
+ * author and per publication year, with the number of books and the sum of their prices, and the
+ * {@code book_statistics} collection holds the price distribution. The first ones are updated
+ * incrementally on every book write, while the price distribution is only flagged as stale, and
+ * recomputed by {@link #refreshPriceDistribution()}. Reading the statistics therefore never scans the
+ * {@code book} collection, and only reads the {@link #TOP_AUTHORS} authors with the most books.
+ * <p>
+ * Incremental updates can drift when the same book is written concurrently, so the statistics are also
+ * rebuilt from the {@code book} collection every night, by one aggregation per dimension writing its
+ * result with {@code $out}: no result has to fit in a single document, whatever the number of authors.
+ * The scheduled tasks run on a single instance at a time.
+ */
+@Service
+public class BookStatisticsService {
+
+    public static final String COLLECTION = "book_statistics";
+
+    public static final String AUTHOR_COLLECTION = "book_statistics_author";
+
+    public static final String YEAR_COLLECTION = "book_statistics_year";
+
+    /**
+     * Number of authors returned with the statistics, the ones with the most books.
+     */
+    public static final int TOP_AUTHORS = 100;
+
+    private static final String PRICES_ID = "prices";
+
+    private static final String REBUILD_LOCK = "rebuildBookStatistics";
+
+    private static final int PRICE_BUCKETS = 100;
+
+    private static final int[] PERCENTILES = {50, 90, 99};
+
+    private final Logger log = LoggerFactory.getLogger(BookStatisticsService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final MongoTemplate primaryMongoTemplate;
+
+    private final SchedulerLock schedulerLock;
+
+    public BookStatisticsService(MongoTemplate mongoTemplate, @Qualifier(DatabaseConfiguration.PRIMARY_MONGO_TEMPLATE) MongoTemplate primaryMongoTemplate,
+                                 SchedulerLock schedulerLock) {
+        this.mongoTemplate = mongoTemplate;
+        this.primaryMongoTemplate = primaryMongoTemplate;
+        this.schedulerLock = schedulerLock;
+    }
+
+    /**
+     * Return the statistics of the catalog.
+     *
+     * @return the statistics, as last maintained: all the publication years, and the {@link #TOP_AUTHORS} authors with the most books.
+     */
+    public BookStatisticsDTO getStatistics() {
+        log.debug("Request to get the Book statistics");
+        BookStatisticsDTO statistics = new BookStatisticsDTO();
+        Query authors = new Query(Criteria.where("count").gt(0))
+            .with(Sort.by(Sort.Direction.DESC, "count").and(Sort.by(Sort.Direction.ASC, "_id")))
+            .limit(TOP_AUTHORS);
+        for (Document document : mongoTemplate.find(authors, Document.class, AUTHOR_COLLECTION)) {
+            statistics.getAuthors().add(toBucket(document));
+        }
+        Query years = new Query(Criteria.where("count").gt(0)).with(Sort.by(Sort.Direction.ASC, "_id"));
+        for (Document document : mongoTemplate.find(years, Document.class, YEAR_COLLECTION)) {
+            StatisticsBucketDTO bucket = toBucket(document);
+            statistics.getPublicationYears().add(bucket);
+            statistics.setBookCount(statistics.getBookCount() + bucket.getCount());
+        }
+        Document prices = mongoTemplate.findById(PRICES_ID, Document.class, COLLECTION);
+        if (prices != null) {
+            statistics.setMinPrice(toBigDecimal(prices.get("min")));
+            statistics.setMaxPrice(toBigDecimal(prices.get("max")));
+            Document percentiles = prices.get("percentiles", Document.class);
+            if (percentiles != null) {
+                percentiles.forEach((key, value) -> statistics.getPricePercentiles().put(key, toBigDecimal(value)));
+            }
+            Date refreshedAt = prices.getDate("refreshedAt");
+            statistics.setPricesRefreshedAt(refreshedAt == null ? null : refreshedAt.toInstant());
+        }
+        return statistics;
+    }
+
+    /**
+     * Reads the contribution of a stored book to the statistics, before it is updated or deleted.
+     * <p>
+     * The book is read from the primary, as the statistics are then incremented from what was read.
+     *
+     * @param id the id of the book.
+     * @return the contribution of the book, or {@code null} if it does not exist.
+     */
+    public Contribution findContribution(String id) {
+        Query query = new Query(Criteria.where("_id").is(BookRepository.toReferenceId(id)));
+        query.fields().include("name").include("publication_date").include("price");
+        Document raw = primaryMongoTemplate.findOne(query, Document.class, primaryMongoTemplate.getCollectionName(Book.class));
+        if (raw == null) {
+            return null;
+        }
+        // The author is only needed by id, there is no need to resolve its reference
+        Object authorId = BookRepository.toAuthorId(raw.remove("name"));
+        Book book = mongoTemplate.getConverter().read(Book.class, raw);
+        return new Contribution(authorId == null ? null : authorId.toString(), book.getPublicationDate() == null ? null : book.getPublicationDate().getYear(),
+            book.getPrice());
+    }
+
+    /**
+     * Replaces the contribution of a book to the statistics.
+     *
+     * @param previous the contribution of the book before it was saved or deleted, {@code null} for a new book.
+     * @param book the saved book, {@code null} for a deleted book.
+     */
+    public void updateContribution(Contribution previous, Book book) {
+        Contribution current = Contribution.of(book);
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        BulkOperations authorOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AUTHOR_COLLECTION);
+        BulkOperations yearOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, YEAR_COLLECTION);
+        boolean authors = false;
+        boolean years = false;
+        for (Contribution contribution : Arrays.asList(previous, current)) {
+            if (contribution == null) {
+                continue;
+            }
+            BigDecimal price = contribution.getPrice() == null ? BigDecimal.ZERO : contribution.getPrice();
+            int count = contribution == previous ? -1 : 1;
+            Decimal128 priceIncrement = new Decimal128(count < 0 ? price.negate() : price);
+            if (contribution.getAuthorId() != null) {
+                increment(authorOperations, BookRepository.toReferenceId(contribution.getAuthorId()), count, priceIncrement);
+                authors = true;
+            }
+            if (contribution.getYear() != null) {
+                increment(yearOperations, contribution.getYear(), count, priceIncrement);
+                years = true;
+            }
+        }
+        if (authors) {
+            authorOperations.execute();
+        }
+        if (years) {
+            yearOperations.execute();
+        }
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(PRICES_ID)), new Update().set("stale", true), COLLECTION);
+    }
+
+    /**
+     * Recomputes the price distribution, if books were written since it was last computed.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void refreshPriceDistribution() {
+        schedulerLock.runLocked("refreshBookPriceDistribution", Duration.ofMinutes(10), Duration.ZERO, () -> {
+            // The flag is cleared before computing, so that books written in the meantime flag it again
+            Document stale = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(PRICES_ID).and("stale").is(true)),
+                new Update().set("stale", false), FindAndModifyOptions.options().returnNew(false), Document.class, COLLECTION);
+            if (stale != null) {
+                mongoTemplate.upsert(new Query(Criteria.where("_id").is(PRICES_ID)), priceDistribution(aggregatePrices()), COLLECTION);
+            }
+        });
+    }
+
+    /**
+     * Builds the statistics at startup, if they were never built.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void initStatistics() {
+        if (mongoTemplate.getCollection(YEAR_COLLECTION).countDocuments() == 0) {
+            rebuildStatistics();
+        }
+    }
+
+    /**
+     * Rebuilds all the statistics from the {@code book} collection, unless another instance is already rebuilding them.
+     */
+    public void rebuildStatistics() {
+        schedulerLock.runLocked(REBUILD_LOCK, Duration.ofHours(1), Duration.ZERO, this::rebuild);
+    }
+
+    /**
+     * Rebuilds all the statistics on a single instance.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:00 (am).
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void rebuildStatisticsNightly() {
+        schedulerLock.runLocked(REBUILD_LOCK, Duration.ofHours(1), Duration.ofMinutes(1), this::rebuild);
+    }
+
+    private void rebuild() {
+        log.debug("Rebuilding the Book statistics");
+        // Prices not yet converted by the BookPriceMigration are strings
+        Document price = new Document("$toDecimal", "$price");
+        // Aggregation field paths cannot reference "$id", so books are grouped by their whole author DBRef, whose $id is then extracted
+        Document authorId = new Document("$arrayElemAt", Arrays.asList(
+            new Document("$map", new Document("input", new Document("$objectToArray", "$_id")).append("in", "$$this.v")), 1));
+        aggregate(Arrays.asList(
+            new Document("$match", new Document("name", new Document("$ne", null))),
+            group("$name", price),
+            new Document("$project", new Document("_id", authorId).append("count", 1).append("priceTotal", 1)),
+            new Document("$out", AUTHOR_COLLECTION)));
+        // Publication dates are at the start of the day in the default time zone
+        aggregate(Arrays.asList(
+            new Document("$match", new Document("publication_date", new Document("$ne", null))),
+            group(new Document("$year", new Document("date", "$publication_date").append("timezone", ZoneId.systemDefault().getId())), price),
+            new Document("$out", YEAR_COLLECTION)));
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(PRICES_ID)), priceDistribution(aggregatePrices()).set("stale", false), COLLECTION);
+        // Removes the author and year documents stored along the prices before they had their own collections
+        mongoTemplate.remove(new Query(Criteria.where("_id").ne(PRICES_ID)), COLLECTION);
+        log.debug("Rebuilt the Book statistics of {} authors", mongoTemplate.getCollection(AUTHOR_COLLECTION).estimatedDocumentCount());
+    }
+
+    private void aggregate(List<Document> pipeline) {
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Book.class)).aggregate(pipeline).allowDiskUse(true).toCollection();
+    }
+
+    /**
+     * Aggregates the price distribution of the {@code book} collection in a single pass.
+     *
+     * @return the result of the {@code $facet} stage, with one document per facet.
+     */
+    private Document aggregatePrices() {
+        Document facets = new Document("prices", Collections.singletonList(new Document("$group", new Document("_id", null)
+                .append("count", new Document("$sum", 1))
+                .append("min", new Document("$min", "$price"))
+                .append("max", new Document("$max", "$price")))))
+            .append("priceBuckets", Collections.singletonList(
+                new Document("$bucketAuto", new Document("groupBy", "$price").append("buckets", PRICE_BUCKETS))));
+        List<Document> pipeline = Arrays.asList(
+            new Document("$project", new Document("price", new Document("$toDecimal", "$price"))),
+            new Document("$facet", facets));
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Book.class)).aggregate(pipeline).allowDiskUse(true).first();
+    }
+
+    private static Document group(Object key, Document price) {
+        return new Document("$group", new Document("_id", key)
+            .append("count", new Document("$sum", 1))
+            .append("priceTotal", new Document("$sum", price)));
+    }
+
+    private static void increment(BulkOperations operations, Object key, int count, Decimal128 price) {
+        // Built as a document, so that the Decimal128 increment is written as is
+        Document update = new Document("$inc", new Document("count", count).append("priceTotal", price));
+        operations.upsert(new Query(Criteria.where("_id").is(key)), Update.fromDocument(update));
+    }
+
+    private static StatisticsBucketDTO toBucket(Document document) {
+        long count = ((Number) document.get("count")).longValue();
+        BigDecimal average = toBigDecimal(document.get("priceTotal")).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+        return new StatisticsBucketDTO(String.valueOf(document.get("_id")), count, average);
+    }
+
+    /**
+     * Reads the price distribution from the result of the aggregation.
+     * <p>
+     * The percentiles are approximated by {@code $bucketAuto}, which splits the prices in buckets of
+     * about the same number of books: a percentile is the upper bound of the bucket reaching it.
+     */
+    private static Update priceDistribution(Document result) {
+        Update update = new Update().set("refreshedAt", new Date());
+        List<Document> prices = getList(result, "prices");
+        if (prices.isEmpty()) {
+            return update.unset("min").unset("max").unset("percentiles");
+        }
+        long count = ((Number) prices.get(0).get("count")).longValue();
+        Document percentiles = new Document();
+        List<Document> buckets = getList(result, "priceBuckets");
+        for (int percentile : PERCENTILES) {
+            long target = (long) Math.ceil(count * percentile / 100.0);
+            long cumulated = 0;
+            for (Document bucket : buckets) {
+                cumulated += ((Number) bucket.get("count")).longValue();
+                if (cumulated >= target) {
+                    percentiles.append("p" + percentile, bucket.get("_id", Document.class).get("max"));
+                    break;
+                }
+            }
+        }
+        return update.set("min", prices.get(0).get("min")).set("max", prices.get(0).get("max")).set("percentiles", percentiles);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Document> getList(Document document, String key) {
+        List<Document> list = (List<Document>) document.get(key);
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Decimal128) {
+            return ((Decimal128) value).bigDecimalValue();
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    /**
+     * The fields of a book counted in the statistics.
+     */
+    public static final class Contribution {
+
+        private final String authorId;
+
+        private final Integer year;
+
+        private final BigDecimal price;
+
+        public Contribution(String authorId, Integer year, BigDecimal price) {
+            this.authorId = authorId;
+            this.year = year;
+            this.price = price;
+        }
+
+        public static Contribution of(Book book) {
+            if (book == null) {
+                return null;
+            }
+            return new Contribution(book.getName() == null ? null : book.getName().getId(),
+                book.getPublicationDate() == null ? null : book.getPublicationDate().getYear(), book.getPrice());
+        }
+
+        public String getAuthorId() {
+            return authorId;
+        }
+
+        public Integer getYear() {
+            return year;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Contribution that = (Contribution) o;
+            return Objects.equals(authorId, that.authorId) &&
+                Objects.equals(year, that.year) &&
+                (price == null ? that.price == null : that.price != null && price.compareTo(that.price) == 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(authorId, year);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service generating a synthetic catalog, to benchmark the application at production scale.
+ * <p>
+ * The catalog is skewed like a real one: the books are spread over the authors along a Zipf distribution, so
+ * a few authors are prolific while most wrote a single book, the title words follow a long tail, the prices a
+ * log-normal distribution and the publication dates the life of their authors.
+ * <p>
+ * The documents are written in chunks of unordered bulk inserts, sent in parallel. Each chunk draws from its
+ * own random generator, seeded from a mix of the given seed and its index, so the same seed always generates the
+ * same catalog, ids included, whatever the order in which the chunks are inserted.
+ * <p>
+ * The inserted documents are flagged with {@link #GENERATED_FIELD}, so that the {@link ChangeStreamConsumer} skips
+ * their inserts rather than indexing them one batch at a time: the catalog is indexed at once by {@link SearchIndexer#reindexAll()}.
+ */
+@Service
+public class CatalogDataGenerator {
+
+    public static final String GENERATED_FIELD = "generated";
+
+    public static final int MAX_AUTHORS = 1_000_000;
+
+    public static final long MAX_BOOKS = 50_000_000;
+
+    public static final int MAX_PARALLELISM = 16;
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final double AUTHOR_SKEW = 1.1;
+
+    private static final double WORD_SKEW = 1.0;
+
+    private static final String[] FIRST_NAMES = {"Jane", "Charles", "Mary", "Leo", "Virginia", "Fyodor", "Emily", "Victor",
+        "George", "Marcel", "Toni", "Gabriel", "Agatha", "Herman", "Chinua", "Haruki", "Isabel", "Italo", "Doris", "Franz",
+        "Ursula", "Jorge", "Edith", "Thomas", "Margaret", "Albert", "Simone", "Orhan", "Sylvia", "Umberto"};
+
+    private static final String[] LAST_NAMES = {"Austen", "Dickens", "Shelley", "Tolstoy", "Woolf", "Dostoevsky", "Bronte",
+        "Hugo", "Eliot", "Proust", "Morrison", "Garcia", "Christie", "Melville", "Achebe", "Murakami", "Allende", "Calvino",
+        "Lessing", "Kafka", "Le Guin", "Borges", "Wharton", "Mann", "Atwood", "Camus", "de Beauvoir", "Pamuk", "Plath", "Eco"};
+
+    private static final String[] TITLE_WORDS = {"The", "Night", "House", "War", "Love", "Time", "Sea", "City", "Garden",
+        "Shadow", "River", "Winter", "Name", "Stone", "Light", "Secret", "Last", "Road", "Fire", "Silence", "Island", "Mirror",
+        "Letters", "Memory", "Empire", "Storm", "Glass", "Orchard", "Harbour", "Clock", "Wolves", "Lantern", "Ashes", "Saint",
+        "Machine", "Labyrinth", "Cartographer", "Equinox", "Marigold", "Obsidian"};
+
+    private final Logger log = LoggerFactory.getLogger(CatalogDataGenerator.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final SearchIndexer searchIndexer;
+
+    private final BookStatisticsService bookStatisticsService;
+
+    public CatalogDataGenerator(MongoTemplate mongoTemplate, SearchIndexer searchIndexer, BookStatisticsService bookStatisticsService) {
+        this.mongoTemplate = mongoTemplate;
+        this.searchIndexer = searchIndexer;
+        this.bookStatisticsService = bookStatisticsService;
+    }
+
+    /**
+     * Generates and inserts a synthetic catalog, then rebuilds the statistics and optionally reindexes the catalog.
+     *
+     * @param authors the number of authors to generate.
+     * @param books the number of books to generate.
+     * @param seed the seed of the catalog.
+     * @param parallelism the number of bulk inserts sent in parallel.
+     * @param index whether to reindex the whole catalog once generated.
+     */
+    @Async
+    public void generate(int authors, long books, long seed, int parallelism, boolean index) {
+        log.info("Generating {} authors and {} books with seed {}", authors, books, seed);
+        long start = System.currentTimeMillis();
+        Random random = new Random(seed);
+        String[] authorIds = new String[authors];
+        String[] authorNames = new String[authors];
+        LocalDate[] birthDates = new LocalDate[authors];
+        for (int i = 0; i < authors; i++) {
+            authorIds[i] = nextObjectId(random).toHexString();
+            authorNames[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)] +
+                (i < FIRST_NAMES.length * LAST_NAMES.length ? "" : " " + (i / (FIRST_NAMES.length * LAST_NAMES.length)));
+            birthDates[i] = LocalDate.of(1700 + (int) Math.round(Math.sqrt(random.nextDouble()) * 290), 1, 1).plusDays(random.nextInt(365));
+        }
+        double[] authorWeights = cumulativeZipfWeights(authors, AUTHOR_SKEW);
+        double[] wordWeights = cumulativeZipfWeights(TITLE_WORDS.length, WORD_SKEW);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        AtomicLong inserted = new AtomicLong();
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int from = 0; from < authors; from += CHUNK_SIZE) {
+                int chunkFrom = from;
+                int chunkTo = Math.min(authors, from + CHUNK_SIZE);
+                chunks.add(executor.submit(() -> {
+                    List<Document> documents = new ArrayList<>(chunkTo - chunkFrom);
+                    for (int i = chunkFrom; i < chunkTo; i++) {
+                        Author author = new Author().name(authorNames[i]).birthDate(birthDates[i]);
+                        author.setId(authorIds[i]);
+                        documents.add(toDocument(author));
+                    }
+                    insert(Author.class, documents);
+                }));
+            }
+            await(chunks);
+            log.info("Generated {} authors in {} ms", authors, System.currentTimeMillis() - start);
+
+            chunks.clear();
+            long chunkCount = (books + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            for (long chunk = 0; chunk < chunkCount; chunk++) {
+                long chunkIndex = chunk;
+                int size = (int) Math.min(CHUNK_SIZE, books - chunk * CHUNK_SIZE);
+                chunks.add(executor.submit(() -> {
+                    Random chunkRandom = new Random(mix(mix(seed) + chunkIndex));
+                    List<Document> documents = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        int author = pick(authorWeights, chunkRandom);
+                        Author reference = new Author().name(authorNames[author]);
+                        reference.setId(authorIds[author]);
+                        Book book = new Book()
+                            .title(nextTitle(chunkRandom, wordWeights))
+                            .description(nextTitle(chunkRandom, wordWeights) + ", " + nextTitle(chunkRandom, wordWeights).toLowerCase() + ".")
+                            .publicationDate(nextPublicationDate(chunkRandom, birthDates[author]))
+                            .price(nextPrice(chunkRandom))
+                            .name(reference)
+                            .authorName(authorNames[author]);
+                        book.setId(nextObjectId(chunkRandom).toHexString());
+                        documents.add(toDocument(book));
+                    }
+                    insert(Book.class, documents);
+                    long count = inserted.addAndGet(size);
+                    if (count % (CHUNK_SIZE * 100) == 0) {
+                        log.info("Generated {} books", count);
+                    }
+                }));
+            }
+            await(chunks);
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Generated {} authors and {} books in {} ms", authors, inserted.get(), System.currentTimeMillis() - start);
+
+        bookStatisticsService.rebuildStatistics();
+        if (index) {
+            searchIndexer.reindexAll();
+        }
+    }
+
+    private Document toDocument(Object entity) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(entity, document);
+        return document.append(GENERATED_FIELD, true);
+    }
+
+    private void insert(Class<?> entityClass, List<Document> documents) {
+        try {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityClass))
+                .insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            // Generating twice with the same seed inserts the same ids, the existing documents are kept
+            log.warn("{} of {} {} documents were not inserted: {}", e.getWriteErrors().size(), documents.size(),
+                entityClass.getSimpleName(), e.getWriteErrors().get(0).getMessage());
+        }
+    }
+
+    private static void await(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating the catalog", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not generate the catalog", e.getCause());
+        }
+    }
+
+    /**
+     * @return the SplitMix64 finalizer of a value, so that close seeds and chunk indexes give unrelated seeds.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static ObjectId nextObjectId(Random random) {
+        byte[] bytes = new byte[12];
+        random.nextBytes(bytes);
+        return new ObjectId(bytes);
+    }
+
+    /**
+     * @return the cumulative weights of the ranks 1 to {@code size} of a Zipf distribution with exponent {@code skew}.
+     */
+    private static double[] cumulativeZipfWeights(int size, double skew) {
+        double[] weights = new double[size];
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += 1 / Math.pow(i + 1, skew);
+            weights[i] = total;
+        }
+        return weights;
+    }
+
+    private static int pick(double[] cumulativeWeights, Random random) {
+        int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1]);
+        return Math.min(index < 0 ? -index - 1 : index, cumulativeWeights.length - 1);
+    }
+
+    private static String nextTitle(Random random, double[] wordWeights) {
+        int words = 1 + random.nextInt(5);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            title.append(i == 0 ? "" : " ").append(TITLE_WORDS[pick(wordWeights, random)]);
+        }
+        if (random.nextInt(20) == 0) {
+            title.append(", volume ").append(2 + random.nextInt(8));
+        }
+        return title.toString();
+    }
+
+    /**
+     * @return a date between the 20th and the 80th birthday of the author, or today if later.
+     */
+    private static LocalDate nextPublicationDate(Random random, LocalDate birthDate) {
+        LocalDate date = birthDate.plusDays(20 * 365 + random.nextInt(60 * 365));
+        return date.isAfter(LocalDate.now()) ? LocalDate.now() : date;
+    }
+
+    /**
+     * @return a log-normal price around 15, between 1 and 500.
+     */
+    private static BigDecimal nextPrice(Random random) {
+        double price = Math.exp(Math.log(15) + 0.6 * random.nextGaussian());
+        return BigDecimal.valueOf(Math.min(500, Math.max(1, price))).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,274 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Service following the changes of the collections handled by the {@link ChangeStreamHandler}s, and
+ * dispatching them in batches.
+ * <p>
+ * A single change stream is opened on the database, filtered on the handled collections. The resume
+ * token of the last handled batch is stored in the {@code change_stream_token} collection, so that
+ * the changes made while the application was stopped are handled at the next start, as long as they
+ * are still in the oplog.
+ * <p>
+ * The changes are followed by a single instance at a time, holding the {@code changeStreamConsumer} lease of
+ * the {@link SchedulerLock}, renewed while it consumes them. The other instances stand by, and take over from
+ * the stored resume token once the lease is no longer renewed.
+ * <p>
+ * Change streams require a replica set or a sharded cluster: on a standalone server, the consumer
+ * does not start, and derived data is only updated by the REST resources.
+ */
+@Service
+public class ChangeStreamConsumer {
+
+    public static final String TOKEN_COLLECTION = "change_stream_token";
+
+    public static final String EVENTS_METRIC = "mongodb.changestream.events";
+
+    private static final String TOKEN_ID = "catalog";
+
+    private static final String LEASE_NAME = "changeStreamConsumer";
+
+    private final Logger log = LoggerFactory.getLogger(ChangeStreamConsumer.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final SchedulerLock schedulerLock;
+
+    private final ApplicationProperties.ChangeStreams properties;
+
+    private final Map<String, List<ChangeStreamHandler>> handlers;
+
+    private volatile boolean running;
+
+    private long leaseRenewedAt;
+
+    private Thread thread;
+
+    public ChangeStreamConsumer(MongoTemplate mongoTemplate, MeterRegistry meterRegistry, SchedulerLock schedulerLock,
+                                ApplicationProperties applicationProperties, List<ChangeStreamHandler> handlers) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        this.schedulerLock = schedulerLock;
+        this.properties = applicationProperties.getChangeStreams();
+        this.handlers = handlers.stream().collect(Collectors.groupingBy(ChangeStreamHandler::getCollection));
+    }
+
+    /**
+     * Starts following the changes, once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.isEnabled() || handlers.isEmpty() || running) {
+            return;
+        }
+        if (!isChangeStreamSupported(mongoTemplate)) {
+            log.warn("MongoDB is not a replica set, changes made outside of the REST resources will not update the derived data");
+            return;
+        }
+        running = true;
+        // The first cursor is opened before returning, so that no change made once the application is ready is missed
+        MongoCursor<ChangeStreamDocument<Document>> cursor = renewLease(true) ? openFirstCursor() : null;
+        thread = new Thread(() -> consume(cursor), "change-stream-consumer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return whether the changes are followed, by this instance or by another one.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops following the changes, after the current batch.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(properties.getMaxAwaitTime() + properties.getRetryDelay());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    static boolean isChangeStreamSupported(MongoTemplate mongoTemplate) {
+        Document isMaster = mongoTemplate.getDb().runCommand(new Document("isMaster", 1));
+        return isMaster.containsKey("setName") || "isdbgrid".equals(isMaster.getString("msg"));
+    }
+
+    private void consume(MongoCursor<ChangeStreamDocument<Document>> firstCursor) {
+        MongoCursor<ChangeStreamDocument<Document>> opened = firstCursor;
+        while (running) {
+            if (opened == null && !renewLease(true)) {
+                standBy();
+                continue;
+            }
+            log.info("Following the changes of the collections {}", handlers.keySet());
+            try (MongoCursor<ChangeStreamDocument<Document>> cursor = opened != null ? opened : watch(loadToken()).iterator()) {
+                opened = null;
+                while (running && renewLease(false)) {
+                    List<ChangeStreamDocument<Document>> batch = new ArrayList<>();
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    while (change != null) {
+                        batch.add(change);
+                        change = batch.size() < properties.getBatchSize() ? cursor.tryNext() : null;
+                    }
+                    if (!batch.isEmpty()) {
+                        dispatch(batch);
+                        // Once the lease is lost, the token is left to the instance which took over
+                        if (!renewLease(true)) {
+                            break;
+                        }
+                        saveToken(batch.get(batch.size() - 1).getResumeToken());
+                    }
+                }
+                if (running) {
+                    log.info("The changes are followed by another instance");
+                }
+            } catch (MongoCommandException e) {
+                if (isResumeTokenLost(e)) {
+                    log.error("The changes since the last resume token are no longer in the oplog, the search indices must be rebuilt", e);
+                    mongoTemplate.getCollection(TOKEN_COLLECTION).deleteOne(Filters.eq("_id", TOKEN_ID));
+                } else {
+                    retryLater(e);
+                }
+            } catch (MongoException e) {
+                retryLater(e);
+            }
+        }
+        schedulerLock.release(LEASE_NAME);
+    }
+
+    /**
+     * Renews the lease of this instance, or acquires it.
+     *
+     * @param force whether to renew the lease even though it was renewed recently.
+     * @return whether the lease is held by this instance.
+     */
+    private boolean renewLease(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now - leaseRenewedAt < properties.getLeaseTime() / 3) {
+            return true;
+        }
+        try {
+            if (!schedulerLock.lease(LEASE_NAME, Duration.ofMillis(properties.getLeaseTime()))) {
+                return false;
+            }
+        } catch (MongoException e) {
+            log.warn("Could not renew the change stream lease: {}", e.getMessage());
+            return false;
+        }
+        leaseRenewedAt = now;
+        return true;
+    }
+
+    private void standBy() {
+        try {
+            Thread.sleep(properties.getRetryDelay());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private MongoCursor<ChangeStreamDocument<Document>> openFirstCursor() {
+        try {
+            return watch(loadToken()).iterator();
+        } catch (MongoException e) {
+            // Handled by the consuming thread, which opens the cursor again
+            return null;
+        }
+    }
+
+    private ChangeStreamIterable<Document> watch(BsonDocument token) {
+        ChangeStreamIterable<Document> changes = mongoTemplate.getDb()
+            .watch(Collections.singletonList(Aggregates.match(Filters.and(
+                Filters.in("ns.coll", handlers.keySet()),
+                // The generated catalogs are indexed at once by the generator
+                Filters.nor(Filters.and(Filters.eq("operationType", "insert"), Filters.eq("fullDocument." + CatalogDataGenerator.GENERATED_FIELD, true)))))))
+            .fullDocument(FullDocument.UPDATE_LOOKUP)
+            .batchSize(properties.getBatchSize())
+            .maxAwaitTime(properties.getMaxAwaitTime(), TimeUnit.MILLISECONDS);
+        return token == null ? changes : changes.resumeAfter(token);
+    }
+
+    private void dispatch(List<ChangeStreamDocument<Document>> batch) {
+        Map<String, List<ChangeStreamDocument<Document>>> changesByCollection = batch.stream()
+            .collect(Collectors.groupingBy(change -> change.getNamespace().getCollectionName(), LinkedHashMap::new, Collectors.toList()));
+        changesByCollection.forEach((collection, changes) -> {
+            Counter.builder(EVENTS_METRIC)
+                .description("Number of changes dispatched to the change stream handlers")
+                .tag("collection", collection)
+                .register(meterRegistry)
+                .increment(changes.size());
+            for (ChangeStreamHandler handler : handlers.getOrDefault(collection, Collections.emptyList())) {
+                try {
+                    handler.handle(changes);
+                } catch (RuntimeException e) {
+                    // A failing handler must not block the others, nor the following changes
+                    log.error("Failed to handle {} changes of {} with {}", changes.size(), collection, handler.getClass().getSimpleName(), e);
+                }
+            }
+        });
+    }
+
+    private BsonDocument loadToken() {
+        BsonDocument token = mongoTemplate.getCollection(TOKEN_COLLECTION).withDocumentClass(BsonDocument.class)
+            .find(Filters.eq("_id", TOKEN_ID)).first();
+        return token == null ? null : token.getDocument("token");
+    }
+
+    private void saveToken(BsonDocument token) {
+        mongoTemplate.getCollection(TOKEN_COLLECTION).replaceOne(Filters.eq("_id", TOKEN_ID),
+            new Document("_id", TOKEN_ID).append("token", token).append("updatedAt", new Date()), new ReplaceOptions().upsert(true));
+    }
+
+    private static boolean isResumeTokenLost(MongoCommandException e) {
+        // ChangeStreamFatalError, or the resume token not found in the oplog
+        return e.getErrorCode() == 280 || e.getErrorCode() == 40585 || e.getErrorCode() == 286;
+    }
+
+    private void retryLater(MongoException e) {
+        log.warn("Change stream interrupted, retrying in {} ms: {}", properties.getRetryDelay(), e.getMessage());
+        try {
+            Thread.sleep(properties.getRetryDelay());
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
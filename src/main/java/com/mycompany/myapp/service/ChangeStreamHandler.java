@@ -0,0 +1,63 @@
+package com.mycompany.myapp.service;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonValue;
+import org.bson.Document;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handler of the changes of a collection, dispatched by the {@link ChangeStreamConsumer}.
+ * <p>
+ * Changes are delivered at least once: after a restart, the changes of the last batch may be
+ * delivered again, so handlers must be idempotent.
+ */
+public interface ChangeStreamHandler {
+
+    /**
+     * @return the name of the handled collection.
+     */
+    String getCollection();
+
+    /**
+     * Handles a batch of changes of the collection, in the order they were made.
+     * <p>
+     * Updates come with the current state of the document, which is absent if it was deleted since.
+     *
+     * @param changes the changes, never empty.
+     */
+    void handle(List<ChangeStreamDocument<Document>> changes);
+
+    /**
+     * Collapses a batch of changes to the last known state of each changed document.
+     *
+     * @param changes the changes, in the order they were made.
+     * @return the current state of the changed documents by id, {@code null} for the deleted ones.
+     */
+    static Map<String, Document> latestStates(List<ChangeStreamDocument<Document>> changes) {
+        Map<String, Document> states = new LinkedHashMap<>();
+        for (ChangeStreamDocument<Document> change : changes) {
+            OperationType operationType = change.getOperationType();
+            if (operationType == OperationType.INSERT || operationType == OperationType.UPDATE ||
+                operationType == OperationType.REPLACE || operationType == OperationType.DELETE) {
+                String documentId = toId(change.getDocumentKey().get("_id"));
+                // The document of an update is looked up when the change is read, so it is absent if it was deleted since
+                states.put(documentId, operationType == OperationType.DELETE ? null : change.getFullDocument());
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Converts the id of a changed document to the id of its entity.
+     *
+     * @param id the {@code _id} of the document key.
+     * @return the hexadecimal string of an {@code ObjectId}, or the id itself.
+     */
+    static String toId(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
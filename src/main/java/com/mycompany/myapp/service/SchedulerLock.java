@@ -0,0 +1,108 @@
+package com.mycompany.myapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Lock stored in MongoDB, so that a scheduled task runs on a single instance of the application at a time.
+ * <p>
+ * The {@code scheduler_lock} collection holds one document per task, with the date until which it is locked.
+ * A task is locked by an upsert only matching an expired lock: when the lock is held by another instance,
+ * the upsert tries to insert a second document with the same id, and fails. The lock expires by itself after
+ * {@code lockAtMostFor}, so a crashed instance does not block the task forever.
+ * <p>
+ * Long running tasks rather hold a lease, renewed while they run: another instance takes the task over
+ * once the lease is no longer renewed.
+ */
+@Service
+public class SchedulerLock {
+
+    public static final String COLLECTION = "scheduler_lock";
+
+    private final Logger log = LoggerFactory.getLogger(SchedulerLock.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final String instance = ManagementFactory.getRuntimeMXBean().getName();
+
+    public SchedulerLock(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Runs a task unless it is locked by another instance.
+     *
+     * @param name the name of the task.
+     * @param lockAtMostFor how long the task is locked if the instance running it dies, longer than the task.
+     * @param lockAtLeastFor how long the task stays locked once run, to absorb the clock differences between instances.
+     * @param task the task.
+     * @return whether the task was run.
+     */
+    public boolean runLocked(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable task) {
+        Instant lockedAt = Instant.now();
+        Query expired = new Query(Criteria.where("_id").is(name).and("lockUntil").lte(Date.from(lockedAt)));
+        Update lock = new Update()
+            .set("lockUntil", Date.from(lockedAt.plus(lockAtMostFor)))
+            .set("lockedAt", Date.from(lockedAt))
+            .set("lockedBy", instance);
+        try {
+            mongoTemplate.upsert(expired, lock, COLLECTION);
+        } catch (DuplicateKeyException e) {
+            log.debug("Task {} is locked by another instance", name);
+            return false;
+        }
+        try {
+            task.run();
+            return true;
+        } finally {
+            Instant unlockAt = lockedAt.plus(lockAtLeastFor);
+            Instant now = Instant.now();
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(name).and("lockedBy").is(instance)),
+                Update.update("lockUntil", Date.from(unlockAt.isAfter(now) ? unlockAt : now)), COLLECTION);
+        }
+    }
+
+    /**
+     * Acquires a lease on a task, or renews it when it is already held by this instance.
+     *
+     * @param name the name of the task.
+     * @param leaseTime how long the lease is held without being renewed.
+     * @return whether the lease is held by this instance.
+     */
+    public boolean lease(String name, Duration leaseTime) {
+        Instant now = Instant.now();
+        Query available = new Query(Criteria.where("_id").is(name)
+            .orOperator(Criteria.where("lockUntil").lte(Date.from(now)), Criteria.where("lockedBy").is(instance)));
+        Update lease = new Update()
+            .set("lockUntil", Date.from(now.plus(leaseTime)))
+            .set("lockedBy", instance);
+        try {
+            mongoTemplate.upsert(available, lease, COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.debug("Task {} is leased by another instance", name);
+            return false;
+        }
+    }
+
+    /**
+     * Releases the lease on a task, if it is held by this instance, so that another instance takes it over at once.
+     *
+     * @param name the name of the task.
+     */
+    public void release(String name) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(name).and("lockedBy").is(instance)),
+            Update.update("lockUntil", new Date()), COLLECTION);
+    }
+}
@@ -0,0 +1,218 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.repository.search.SearchClient;
+import com.mycompany.myapp.service.dto.CursorPage;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import io.searchbox.core.SearchResult;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.elasticsearch.index.query.QueryBuilders.constantScoreQuery;
+
+/**
+ * Service walking through all the hits of a search with {@code search_after} cursors.
+ * <p>
+ * Unlike from/size pagination, each page costs the same whatever its depth, and pages are not
+ * limited by the {@code index.max_result_window} of the index. Hits are sorted by score, then by id
+ * so that the order is total, and a cursor is the opaque encoding of the sort values of the last hit
+ * of a page.
+ */
+@Service
+public class SearchCursorService {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int EXPORT_BATCH_SIZE = MAX_PAGE_SIZE;
+
+    private static final String TIE_BREAKER_FIELD = "id";
+
+    private final Logger log = LoggerFactory.getLogger(SearchCursorService.class);
+
+    private final SearchClient searchClient;
+
+    public SearchCursorService(SearchClient searchClient) {
+        this.searchClient = searchClient;
+    }
+
+    /**
+     * Search for the page of hits following a cursor.
+     *
+     * @param index the index to search.
+     * @param type the type of the documents.
+     * @param query the query of the search.
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page.
+     * @param size the number of hits of the page, capped to {@link #MAX_PAGE_SIZE}.
+     * @param <T> the type of the documents.
+     * @return the page of hits, with the cursor of the next page.
+     * @throws BadRequestAlertException if the cursor is not valid.
+     */
+    public <T> CursorPage<T> search(String index, Class<T> type, QueryBuilder query, String cursor, int size) {
+        return search(index, type, query, cursor, size, null);
+    }
+
+    /**
+     * Search for the page of hits following a cursor, only fetching some fields of their {@code _source}.
+     *
+     * @param index the index to search.
+     * @param type the type of the documents.
+     * @param query the query of the search.
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page.
+     * @param size the number of hits of the page, capped to {@link #MAX_PAGE_SIZE}.
+     * @param fields the fields of the documents to fetch, or {@code null} or empty to fetch whole documents.
+     * @param <T> the type of the documents.
+     * @return the page of hits, with the cursor of the next page.
+     * @throws BadRequestAlertException if the cursor is not valid.
+     */
+    public <T> CursorPage<T> search(String index, Class<T> type, QueryBuilder query, String cursor, int size, String[] fields) {
+        log.debug("Request to search for a page of {} after cursor {}", index, cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        SearchSourceBuilder source = new SearchSourceBuilder()
+            .query(query)
+            .size(pageSize)
+            .sort(SortBuilders.scoreSort())
+            .sort(SortBuilders.fieldSort(TIE_BREAKER_FIELD).order(SortOrder.ASC));
+        fetchFields(source, fields);
+        if (cursor != null) {
+            source.searchAfter(toSearchAfter(decodeCursor(cursor, index), index));
+        }
+        SearchResult result = searchClient.search(index, source);
+        List<T> hits = searchClient.getHits(result, type);
+        String nextCursor = hits.size() < pageSize ? null : encodeCursor(searchClient.getLastSortValues(result));
+        return new CursorPage<>(hits, nextCursor);
+    }
+
+    /**
+     * Writes the {@code _source} of all the hits of a search as newline-delimited JSON.
+     * <p>
+     * Documents are copied as is, without being mapped, and the output is flushed after each batch.
+     * As the export is not scored, hits are only sorted by id.
+     *
+     * @param index the index to search.
+     * @param query the query of the search.
+     * @param out the stream to write to.
+     * @throws IOException if the stream could not be written.
+     */
+    public void export(String index, QueryBuilder query, OutputStream out) throws IOException {
+        export(index, query, null, out);
+    }
+
+    /**
+     * Writes some fields of the {@code _source} of all the hits of a search as newline-delimited JSON.
+     *
+     * @param index the index to search.
+     * @param query the query of the search.
+     * @param fields the fields of the documents to write, or {@code null} or empty to write whole documents.
+     * @param out the stream to write to.
+     * @throws IOException if the stream could not be written.
+     */
+    public void export(String index, QueryBuilder query, String[] fields, OutputStream out) throws IOException {
+        log.debug("Request to export the search hits of {}", index);
+        Object[] searchAfter = null;
+        long count = 0;
+        do {
+            SearchSourceBuilder source = new SearchSourceBuilder()
+                .query(constantScoreQuery(query))
+                .size(EXPORT_BATCH_SIZE)
+                .sort(SortBuilders.fieldSort(TIE_BREAKER_FIELD).order(SortOrder.ASC));
+            fetchFields(source, fields);
+            if (searchAfter != null) {
+                source.searchAfter(searchAfter);
+            }
+            SearchResult result = searchClient.search(index, source);
+            List<String> documents = result.getSourceAsStringList();
+            for (String document : documents) {
+                out.write(document.getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+            }
+            out.flush();
+            count += documents.size();
+            searchAfter = documents.size() < EXPORT_BATCH_SIZE ? null : toSearchAfter(searchClient.getLastSortValues(result), index);
+        } while (searchAfter != null);
+        log.debug("Exported {} search hits of {}", count, index);
+    }
+
+    /**
+     * Restricts the {@code _source} of the hits to some fields. The id is always fetched, as it is
+     * the tie-breaker of the sort.
+     */
+    private static void fetchFields(SearchSourceBuilder source, String[] fields) {
+        if (fields != null && fields.length > 0) {
+            String[] includes = Arrays.copyOf(fields, fields.length + 1);
+            includes[fields.length] = TIE_BREAKER_FIELD;
+            source.fetchSource(includes, null);
+        }
+    }
+
+    private static String encodeCursor(JsonArray sortValues) {
+        if (sortValues == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sortValues.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private JsonArray decodeCursor(String cursor, String index) {
+        try {
+            JsonElement sortValues = new JsonParser().parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (sortValues.isJsonArray()) {
+                return sortValues.getAsJsonArray();
+            }
+        } catch (IllegalArgumentException | JsonParseException e) {
+            log.debug("Invalid search cursor {}", cursor, e);
+        }
+        throw new BadRequestAlertException("Invalid search cursor", index, "invalidcursor");
+    }
+
+    /**
+     * Converts sort values to the types accepted by {@link SearchSourceBuilder#searchAfter(Object[])}.
+     */
+    private static Object[] toSearchAfter(JsonArray sortValues, String index) {
+        if (sortValues == null) {
+            return null;
+        }
+        Object[] searchAfter = new Object[sortValues.size()];
+        for (int i = 0; i < searchAfter.length; i++) {
+            JsonElement value = sortValues.get(i);
+            if (value.isJsonNull()) {
+                searchAfter[i] = null;
+            } else if (!value.isJsonPrimitive()) {
+                throw new BadRequestAlertException("Invalid search cursor", index, "invalidcursor");
+            } else {
+                searchAfter[i] = toSortValue(value.getAsJsonPrimitive());
+            }
+        }
+        return searchAfter;
+    }
+
+    private static Object toSortValue(JsonPrimitive value) {
+        if (value.isBoolean()) {
+            return value.getAsBoolean();
+        }
+        if (value.isNumber()) {
+            String number = value.getAsString();
+            return number.contains(".") || number.contains("e") || number.contains("E") ? (Object) value.getAsDouble() : (Object) value.getAsLong();
+        }
+        return value.getAsString();
+    }
+}
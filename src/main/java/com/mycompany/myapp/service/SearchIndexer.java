@@ -0,0 +1,448 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.DatabaseConfiguration;
+import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.search.AuthorDocument;
+import com.mycompany.myapp.domain.search.BookDocument;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.search.AuthorSearchRepository;
+import com.mycompany.myapp.repository.search.BookSearchRepository;
+import com.mycompany.myapp.repository.search.SearchBulkProcessor;
+import com.mycompany.myapp.repository.search.SearchClient;
+import com.mycompany.myapp.service.mapper.SearchDocumentMapper;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service projecting {@link Book} and {@link Author} entities to their search documents.
+ * <p>
+ * A book document holds the name of its author, and an author document the number of its books. So
+ * indexing an entity may also partially update the documents depending on it: the book count of the
+ * previous and new authors of a book, and the author name of the books of a renamed author. These
+ * partial updates are sent through the {@link SearchBulkProcessor}.
+ * <p>
+ * Every change of the book documents evicts the cached facets of the {@link BookSearchService}, including
+ * the renames of authors, which change the top authors facet. The changes sent through the {@link SearchBulkProcessor}
+ * only evict them at most once per flush interval, as they are only searchable once flushed, and arrive continuously
+ * under write load.
+ * <p>
+ * Entities are read from the primary, as they are indexed right after being written.
+ * <p>
+ * While all the entities are reindexed, the ids of the ones changed by this instance are recorded, and the ones
+ * changed by any instance are read from a change stream started at the time the reindexing started, when MongoDB
+ * is a replica set. They are indexed again once the aliases are moved to the new indices, from their state at
+ * that time, so that no change is lost.
+ */
+@Service
+public class SearchIndexer {
+
+    private static final int REPLAY_BATCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexer.class);
+
+    private final BookSearchRepository bookSearchRepository;
+
+    private final AuthorSearchRepository authorSearchRepository;
+
+    private final SearchBulkProcessor searchBulkProcessor;
+
+    private final SearchDocumentMapper searchDocumentMapper;
+
+    private final BookQueryService bookQueryService;
+
+    private final BookSearchService bookSearchService;
+
+    private final SearchClient searchClient;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    /**
+     * The ids of the books and authors changed since the reindexing started, {@code null} when not reindexing.
+     */
+    private volatile Set<String> changedBookIds;
+
+    private volatile Set<String> changedAuthorIds;
+
+    /**
+     * Whether books were changed through the bulk processor since the cached facets were last evicted.
+     */
+    private final AtomicBoolean facetsChanged = new AtomicBoolean();
+
+    public SearchIndexer(BookSearchRepository bookSearchRepository, AuthorSearchRepository authorSearchRepository,
+                         SearchBulkProcessor searchBulkProcessor, SearchClient searchClient, SearchDocumentMapper searchDocumentMapper,
+                         BookQueryService bookQueryService, BookSearchService bookSearchService, @Qualifier(DatabaseConfiguration.PRIMARY_MONGO_TEMPLATE) MongoTemplate mongoTemplate,
+                         ElasticsearchOperations elasticsearchOperations) {
+        this.bookSearchRepository = bookSearchRepository;
+        this.authorSearchRepository = authorSearchRepository;
+        this.searchBulkProcessor = searchBulkProcessor;
+        this.searchClient = searchClient;
+        this.searchDocumentMapper = searchDocumentMapper;
+        this.bookQueryService = bookQueryService;
+        this.bookSearchService = bookSearchService;
+        this.mongoTemplate = mongoTemplate;
+        this.elasticsearchOperations = elasticsearchOperations;
+    }
+
+    /**
+     * Indexes a book, and updates the book count of its authors if it changed of author.
+     *
+     * @param book the saved book.
+     */
+    public void indexBook(Book book) {
+        log.debug("Request to index Book : {}", book.getId());
+        record(changedBookIds, book.getId());
+        String previousAuthorId = bookSearchRepository.findById(book.getId()).map(BookDocument::getAuthorId).orElse(null);
+        BookDocument document = searchDocumentMapper.bookToBookDocument(book);
+        if (document.getAuthorId() != null && document.getAuthorName() == null) {
+            document.setAuthorName(findAuthorName(document.getAuthorId()));
+        }
+        bookSearchRepository.save(document);
+        bookSearchService.clearFacetsCache();
+        if (!Objects.equals(previousAuthorId, document.getAuthorId())) {
+            updateBookCount(previousAuthorId);
+            updateBookCount(document.getAuthorId());
+        }
+    }
+
+    /**
+     * Removes a book from the index, and updates the book count of its author.
+     *
+     * @param id the id of the deleted book.
+     */
+    public void deleteBook(String id) {
+        log.debug("Request to delete Book : {} from the index", id);
+        record(changedBookIds, id);
+        String previousAuthorId = bookSearchRepository.findById(id).map(BookDocument::getAuthorId).orElse(null);
+        bookSearchRepository.deleteById(id);
+        bookSearchService.clearFacetsCache();
+        updateBookCount(previousAuthorId);
+    }
+
+    /**
+     * Indexes an author, and updates the author name of its books if it was renamed.
+     *
+     * @param author the saved author.
+     */
+    public void indexAuthor(Author author) {
+        log.debug("Request to index Author : {}", author.getId());
+        record(changedAuthorIds, author.getId());
+        String previousName = authorSearchRepository.findById(author.getId()).map(AuthorDocument::getName).orElse(null);
+        authorSearchRepository.save(searchDocumentMapper.authorToAuthorDocument(author, countBooks(author.getId())));
+        if (previousName != null && !previousName.equals(author.getName())) {
+            Query books = new Query(Criteria.where(BookRepository.AUTHOR_ID_FIELD).is(BookRepository.toReferenceId(author.getId())));
+            books.fields().include("_id");
+            Map<String, Object> authorName = Collections.singletonMap("authorName", author.getName());
+            try (CloseableIterator<Document> iterator = mongoTemplate.stream(books, Document.class, mongoTemplate.getCollectionName(Book.class))) {
+                iterator.forEachRemaining(book -> {
+                    record(changedBookIds, book.get("_id").toString());
+                    searchBulkProcessor.update(BookDocument.class, book.get("_id").toString(), authorName);
+                });
+            }
+            facetsChanged.set(true);
+        }
+    }
+
+    /**
+     * Removes an author from the index.
+     *
+     * @param id the id of the deleted author.
+     */
+    public void deleteAuthor(String id) {
+        log.debug("Request to delete Author : {} from the index", id);
+        record(changedAuthorIds, id);
+        authorSearchRepository.deleteById(id);
+    }
+
+    /**
+     * Indexes all the books and authors of the database into new indices, then moves the {@code book} and
+     * {@code author} aliases to them, so that the search keeps answering from the previous indices meanwhile.
+     * <p>
+     * The new indices get the mapping of the previous ones, to which the fields added to the search documents
+     * are added first. The entities changed while reindexing are written to the previous indices, and indexed
+     * again once the aliases are moved, from their state at that time.
+     */
+    @Async
+    public synchronized void reindexAll() {
+        log.info("Reindexing all the books and authors");
+        changedBookIds = ConcurrentHashMap.newKeySet();
+        changedAuthorIds = ConcurrentHashMap.newKeySet();
+        BsonTimestamp startedAt = getOperationTime();
+        try {
+            reindexAllIntoNewIndices();
+        } finally {
+            Set<String> bookIds = changedBookIds;
+            Set<String> authorIds = changedAuthorIds;
+            // The changes made from now on are written to the new indices, through the aliases
+            changedBookIds = null;
+            changedAuthorIds = null;
+            addChangedIds(startedAt, getOperationTime(), bookIds, authorIds);
+            replayBooks(bookIds);
+            replayAuthors(authorIds);
+            log.info("Indexed again {} books and {} authors changed while reindexing", bookIds.size(), authorIds.size());
+        }
+    }
+
+    private void reindexAllIntoNewIndices() {
+        String authorIndex = createNextIndex(AuthorDocument.class);
+        String bookIndex = createNextIndex(BookDocument.class);
+
+        Map<String, Long> bookCounts = bookQueryService.countBooksByAuthor();
+        Map<String, String> authorNames = new HashMap<>();
+        try (CloseableIterator<Author> iterator = mongoTemplate.stream(new Query(), Author.class)) {
+            iterator.forEachRemaining(author -> {
+                authorNames.put(author.getId(), author.getName());
+                searchBulkProcessor.index(authorIndex, searchDocumentMapper.authorToAuthorDocument(author, bookCounts.getOrDefault(author.getId(), 0L)));
+            });
+        }
+
+        long count = 0;
+        try (CloseableIterator<Document> iterator = mongoTemplate.stream(new Query(), Document.class, mongoTemplate.getCollectionName(Book.class))) {
+            while (iterator.hasNext()) {
+                BookDocument document = toBookDocument(iterator.next());
+                if (document.getAuthorId() != null && authorNames.containsKey(document.getAuthorId())) {
+                    document.setAuthorName(authorNames.get(document.getAuthorId()));
+                }
+                searchBulkProcessor.index(bookIndex, document);
+                count++;
+            }
+        }
+        searchBulkProcessor.flush();
+        searchClient.moveAlias(elasticsearchOperations.getPersistentEntityFor(AuthorDocument.class).getIndexName(), authorIndex);
+        searchClient.moveAlias(elasticsearchOperations.getPersistentEntityFor(BookDocument.class).getIndexName(), bookIndex);
+        bookSearchService.clearFacetsCache();
+        log.info("Reindexed {} authors and {} books", authorNames.size(), count);
+    }
+
+    /**
+     * Evicts the cached facets if books were changed through the bulk processor since the previous run.
+     */
+    @Scheduled(fixedDelayString = "${application.elasticsearch.bulk.flush-interval:1000}")
+    public void clearChangedFacets() {
+        if (facetsChanged.getAndSet(false)) {
+            bookSearchService.clearFacetsCache();
+        }
+    }
+
+    /**
+     * Indexes books changed in the database, and updates the book count of their previous and new authors.
+     *
+     * @param books the changed books, as stored in the database.
+     * @param deletedIds the ids of the deleted books.
+     */
+    public void indexBooks(Collection<Document> books, Collection<String> deletedIds) {
+        log.debug("Request to index {} Books and delete {} Books from the index", books.size(), deletedIds.size());
+        Set<String> ids = new HashSet<>(deletedIds);
+        books.forEach(book -> ids.add(book.get("_id").toString()));
+        Set<String> changedIds = changedBookIds;
+        if (changedIds != null) {
+            changedIds.addAll(ids);
+        }
+        Set<String> authorIds = new HashSet<>();
+        Iterable<BookDocument> previousDocuments = bookSearchRepository.findAllById(ids);
+        if (previousDocuments != null) {
+            previousDocuments.forEach(document -> authorIds.add(document.getAuthorId()));
+        }
+        for (Document book : books) {
+            BookDocument document = toBookDocument(book);
+            searchBulkProcessor.index(document);
+            authorIds.add(document.getAuthorId());
+        }
+        deletedIds.forEach(id -> searchBulkProcessor.delete(BookDocument.class, id));
+        facetsChanged.set(true);
+        authorIds.forEach(this::updateBookCount);
+    }
+
+    /**
+     * Indexes authors changed in the database.
+     *
+     * @param authors the changed authors, as stored in the database.
+     * @param deletedIds the ids of the deleted authors.
+     */
+    public void indexAuthors(Collection<Document> authors, Collection<String> deletedIds) {
+        log.debug("Request to index {} Authors and delete {} Authors from the index", authors.size(), deletedIds.size());
+        deletedIds.forEach(id -> record(changedAuthorIds, id));
+        for (Document raw : authors) {
+            Author author = mongoTemplate.getConverter().read(Author.class, raw);
+            record(changedAuthorIds, author.getId());
+            searchBulkProcessor.index(searchDocumentMapper.authorToAuthorDocument(author, countBooks(author.getId())));
+        }
+        deletedIds.forEach(id -> searchBulkProcessor.delete(AuthorDocument.class, id));
+    }
+
+    /**
+     * @return the time of the last operation of the replica set, or {@code null} if MongoDB is standalone.
+     */
+    private BsonTimestamp getOperationTime() {
+        Object operationTime = mongoTemplate.getDb().runCommand(new Document("isMaster", 1)).get("operationTime");
+        return operationTime instanceof BsonTimestamp ? (BsonTimestamp) operationTime : null;
+    }
+
+    /**
+     * Adds the ids of the books and authors changed by any instance between two operation times, as told by a change stream.
+     */
+    private void addChangedIds(BsonTimestamp from, BsonTimestamp to, Set<String> bookIds, Set<String> authorIds) {
+        if (from == null || to == null) {
+            return;
+        }
+        String bookCollection = mongoTemplate.getCollectionName(Book.class);
+        String authorCollection = mongoTemplate.getCollectionName(Author.class);
+        try (MongoCursor<ChangeStreamDocument<Document>> cursor = mongoTemplate.getDb()
+            .watch(Collections.singletonList(Aggregates.match(Filters.in("ns.coll", bookCollection, authorCollection))))
+            .startAtOperationTime(from)
+            .maxAwaitTime(1, TimeUnit.SECONDS)
+            .iterator()) {
+            ChangeStreamDocument<Document> change = cursor.tryNext();
+            while (change != null && (change.getClusterTime() == null || change.getClusterTime().compareTo(to) <= 0)) {
+                if (change.getNamespace() != null && change.getDocumentKey() != null) {
+                    String id = ChangeStreamHandler.toId(change.getDocumentKey().get("_id"));
+                    (bookCollection.equals(change.getNamespace().getCollectionName()) ? bookIds : authorIds).add(id);
+                }
+                change = cursor.tryNext();
+            }
+        } catch (MongoException e) {
+            log.warn("Could not read the changes made while reindexing, only the ones made by this instance are indexed again: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Indexes books again from their current state, and removes the deleted ones from the index.
+     */
+    private void replayBooks(Set<String> ids) {
+        for (List<String> batch : batches(ids)) {
+            List<Document> books = findAll(batch, mongoTemplate.getCollectionName(Book.class));
+            indexBooks(books, missingIds(batch, books));
+        }
+    }
+
+    /**
+     * Indexes authors again from their current state, and removes the deleted ones from the index.
+     */
+    private void replayAuthors(Set<String> ids) {
+        for (List<String> batch : batches(ids)) {
+            List<Document> authors = findAll(batch, mongoTemplate.getCollectionName(Author.class));
+            indexAuthors(authors, missingIds(batch, authors));
+        }
+    }
+
+    private List<Document> findAll(List<String> ids, String collection) {
+        List<Object> referenceIds = new ArrayList<>(ids.size());
+        ids.forEach(id -> referenceIds.add(BookRepository.toReferenceId(id)));
+        return mongoTemplate.find(new Query(Criteria.where("_id").in(referenceIds)), Document.class, collection);
+    }
+
+    private static List<String> missingIds(List<String> ids, List<Document> found) {
+        Set<String> missing = new HashSet<>(ids);
+        found.forEach(document -> missing.remove(document.get("_id").toString()));
+        return new ArrayList<>(missing);
+    }
+
+    private static List<List<String>> batches(Set<String> ids) {
+        List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+        for (String id : ids) {
+            batch.add(id);
+            if (batch.size() == REPLAY_BATCH_SIZE) {
+                batches.add(batch);
+                batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static void record(Set<String> changedIds, String id) {
+        if (changedIds != null && id != null) {
+            changedIds.add(id);
+        }
+    }
+
+    /**
+     * Maps a raw book document to its search document, without resolving its author reference.
+     */
+    private BookDocument toBookDocument(Document raw) {
+        Document fields = new Document(raw);
+        Object authorId = BookRepository.toAuthorId(fields.remove("name"));
+        BookDocument document = searchDocumentMapper.bookToBookDocument(mongoTemplate.getConverter().read(Book.class, fields));
+        if (authorId != null) {
+            document.setAuthorId(authorId.toString());
+        }
+        return document;
+    }
+
+    /**
+     * @return the name of a new index for the documents, named after their alias and the current time.
+     */
+    private String createNextIndex(Class<?> documentClass) {
+        ElasticsearchPersistentEntity<?> entity = elasticsearchOperations.getPersistentEntityFor(documentClass);
+        String index = entity.getIndexName() + "_" + System.currentTimeMillis();
+        elasticsearchOperations.putMapping(documentClass);
+        String settings;
+        try {
+            settings = StreamUtils.copyToString(new ClassPathResource(entity.getSettingPath()).getInputStream(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to read the settings of " + documentClass.getSimpleName(), e);
+        }
+        elasticsearchOperations.createIndex(index, settings);
+        elasticsearchOperations.putMapping(index, entity.getIndexType(), searchClient.getMapping(entity.getIndexName(), entity.getIndexType()));
+        return index;
+    }
+
+    private void updateBookCount(String authorId) {
+        if (authorId != null) {
+            searchBulkProcessor.update(AuthorDocument.class, authorId,
+                Collections.singletonMap("bookCount", countBooks(authorId)));
+        }
+    }
+
+    private long countBooks(String authorId) {
+        return mongoTemplate.count(new Query(Criteria.where(BookRepository.AUTHOR_ID_FIELD).is(BookRepository.toReferenceId(authorId))), Book.class);
+    }
+
+    private String findAuthorName(String authorId) {
+        Query query = new Query(Criteria.where("_id").is(authorId));
+        query.fields().include("name");
+        Author author = mongoTemplate.findOne(query, Author.class);
+        return author == null ? null : author.getName();
+    }
+}
@@ -0,0 +1,169 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.search.AuthorDocument;
+import com.mycompany.myapp.domain.search.BookDocument;
+import com.mycompany.myapp.repository.search.SearchClient;
+import com.mycompany.myapp.service.util.PrefixIndex;
+
+import org.bson.Document;
+import org.elasticsearch.index.query.Operator;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.elasticsearch.index.query.QueryBuilders.matchQuery;
+
+/**
+ * Service for type-ahead suggestions of book titles and author names.
+ * <p>
+ * Suggestions are served by the edge-n-gram {@code autocomplete} sub-fields of the search indices, the best
+ * matches first. When Elasticsearch cannot answer, they are served from in-memory {@link PrefixIndex}es of the
+ * titles of the {@link #FALLBACK_BOOKS} most recently published books and of the names of the
+ * {@link #FALLBACK_AUTHORS} authors with the most books, the most prolific authors first. These are only built
+ * in the background once Elasticsearch fails, and rebuilt when it fails again after {@link #REFRESH_INTERVAL}
+ * milliseconds, so they cost nothing while Elasticsearch is up.
+ */
+@Service
+public class SuggestionService {
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    public static final int FALLBACK_BOOKS = 50_000;
+
+    public static final int FALLBACK_AUTHORS = 10_000;
+
+    public static final long REFRESH_INTERVAL = 10 * 60 * 1000L;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(SuggestionService.class);
+
+    private final SearchClient searchClient;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Executor taskExecutor;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile long refreshedAt;
+
+    private volatile PrefixIndex bookTitles = PrefixIndex.empty();
+
+    private volatile PrefixIndex authorNames = PrefixIndex.empty();
+
+    public SuggestionService(SearchClient searchClient, MongoTemplate mongoTemplate, @Qualifier("taskExecutor") Executor taskExecutor) {
+        this.searchClient = searchClient;
+        this.mongoTemplate = mongoTemplate;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * @param prefix the beginning of a word of the title.
+     * @param size the maximum number of suggestions, capped to {@link #MAX_SUGGESTIONS}.
+     * @return the suggested book titles.
+     */
+    public List<String> suggestBookTitles(String prefix, int size) {
+        return suggest("book", "title", BookDocument.class, BookDocument::getTitle, () -> bookTitles, prefix, size);
+    }
+
+    /**
+     * @param prefix the beginning of a word of the name.
+     * @param size the maximum number of suggestions, capped to {@link #MAX_SUGGESTIONS}.
+     * @return the suggested author names.
+     */
+    public List<String> suggestAuthorNames(String prefix, int size) {
+        return suggest("author", "name", AuthorDocument.class, AuthorDocument::getName, () -> authorNames, prefix, size);
+    }
+
+    private <T> List<String> suggest(String index, String field, Class<T> type, Function<T, String> getter,
+                                     Supplier<PrefixIndex> fallback, String prefix, int size) {
+        int limit = Math.min(size, MAX_SUGGESTIONS);
+        if (prefix == null || prefix.trim().isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        SearchSourceBuilder source = new SearchSourceBuilder()
+            .query(matchQuery(field + ".autocomplete", prefix).operator(Operator.AND))
+            .fetchSource(field, null)
+            // Fetch more hits than needed, as several documents can share the same value
+            .size(2 * limit);
+        try {
+            return searchClient.getHits(searchClient.search(index, source), type).stream()
+                .map(getter)
+                .distinct()
+                .limit(limit)
+                .collect(Collectors.toList());
+        } catch (ElasticsearchException e) {
+            log.warn("Serving {} suggestions from memory, as Elasticsearch failed: {}", index, e.getMessage());
+            refreshPrefixIndexesIfStale();
+            return fallback.get().suggest(prefix, limit);
+        }
+    }
+
+    private void refreshPrefixIndexesIfStale() {
+        if (System.currentTimeMillis() - refreshedAt > REFRESH_INTERVAL && refreshing.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                try {
+                    refreshPrefixIndexes();
+                    refreshedAt = System.currentTimeMillis();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Rebuilds the in-memory suggestion indexes from the database.
+     */
+    void refreshPrefixIndexes() {
+        log.debug("Rebuilding the in-memory suggestion indexes");
+        Query titles = new Query().with(Sort.by(Sort.Direction.DESC, "publication_date")).limit(FALLBACK_BOOKS);
+        titles.fields().include("title");
+        PrefixIndex.Builder bookTitlesBuilder = PrefixIndex.builder();
+        try (CloseableIterator<Book> books = mongoTemplate.stream(titles, Book.class)) {
+            books.forEachRemaining(book -> bookTitlesBuilder.add(book.getTitle(), 1));
+        }
+        bookTitles = bookTitlesBuilder.build();
+
+        // The book counts maintained by the statistics, the most prolific authors first
+        Query topAuthors = new Query(Criteria.where("count").gt(0))
+            .with(Sort.by(Sort.Direction.DESC, "count"))
+            .limit(FALLBACK_AUTHORS);
+        List<Document> counts = mongoTemplate.find(topAuthors, Document.class, BookStatisticsService.AUTHOR_COLLECTION);
+        PrefixIndex.Builder authorNamesBuilder = PrefixIndex.builder();
+        for (int from = 0; from < counts.size(); from += BATCH_SIZE) {
+            Map<Object, Long> bookCounts = new HashMap<>();
+            counts.subList(from, Math.min(from + BATCH_SIZE, counts.size()))
+                .forEach(count -> bookCounts.put(count.get("_id"), ((Number) count.get("count")).longValue()));
+            Query names = new Query(Criteria.where("_id").in(new ArrayList<>(bookCounts.keySet())));
+            names.fields().include("name");
+            for (Document author : mongoTemplate.find(names, Document.class, mongoTemplate.getCollectionName(Author.class))) {
+                authorNamesBuilder.add(author.getString("name"), bookCounts.getOrDefault(author.get("_id"), 0L));
+            }
+        }
+        authorNames = authorNamesBuilder.build();
+        log.debug("Indexed {} book title and {} author name suggestion keys", bookTitles.size(), authorNames.size());
+    }
+}
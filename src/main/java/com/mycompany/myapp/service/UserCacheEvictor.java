@@ -0,0 +1,192 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts the users changed by any instance from the user and account caches of this instance.
+ * <p>
+ * Unlike the {@link ChangeStreamConsumer}, which follows the changes on a single instance, every instance watches
+ * the {@code jhi_user} collection, as every instance has its own caches. The stream starts from the current time:
+ * the caches are empty at startup, and are cleared whenever the stream is reopened, as changes may have been missed.
+ * <p>
+ * A user is evicted by the login and email of its current state, looked up with the change, and by the keys of
+ * its cached entries, which hold its previous login and email when they were changed or the user was deleted.
+ */
+@Service
+public class UserCacheEvictor {
+
+    private final Logger log = LoggerFactory.getLogger(UserCacheEvictor.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final ApplicationProperties.ChangeStreams properties;
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    public UserCacheEvictor(MongoTemplate mongoTemplate, CacheManager cacheManager, ApplicationProperties applicationProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.cacheManager = cacheManager;
+        this.properties = applicationProperties.getChangeStreams();
+    }
+
+    /**
+     * Starts watching the users, once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.isEnabled() || running || !ChangeStreamConsumer.isChangeStreamSupported(mongoTemplate)) {
+            return;
+        }
+        running = true;
+        // The first cursor is opened before returning, so that no change made once the application is ready is missed
+        MongoCursor<ChangeStreamDocument<Document>> cursor = openCursor();
+        thread = new Thread(() -> watch(cursor), "user-cache-evictor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the users.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(properties.getMaxAwaitTime() + properties.getRetryDelay());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    private void watch(MongoCursor<ChangeStreamDocument<Document>> firstCursor) {
+        MongoCursor<ChangeStreamDocument<Document>> opened = firstCursor;
+        while (running) {
+            try (MongoCursor<ChangeStreamDocument<Document>> cursor = opened != null ? opened : newCursor()) {
+                if (opened == null) {
+                    clearAll();
+                }
+                opened = null;
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null && change.getDocumentKey() != null) {
+                        evict(change);
+                    }
+                }
+            } catch (MongoException e) {
+                opened = null;
+                log.warn("User change stream interrupted, retrying in {} ms: {}", properties.getRetryDelay(), e.getMessage());
+                try {
+                    Thread.sleep(properties.getRetryDelay());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+            }
+        }
+    }
+
+    private MongoCursor<ChangeStreamDocument<Document>> openCursor() {
+        try {
+            return newCursor();
+        } catch (MongoException e) {
+            // Opened again by the watching thread
+            return null;
+        }
+    }
+
+    private MongoCursor<ChangeStreamDocument<Document>> newCursor() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class)).watch()
+            .fullDocument(FullDocument.UPDATE_LOOKUP)
+            .maxAwaitTime(properties.getMaxAwaitTime(), TimeUnit.MILLISECONDS)
+            .iterator();
+    }
+
+    private void evict(ChangeStreamDocument<Document> change) {
+        String userId = ChangeStreamHandler.toId(change.getDocumentKey().get("_id"));
+        Cache usersByLogin = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        Cache usersByEmail = cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE);
+        Cache accounts = cacheManager.getCache(AccountCache.ACCOUNTS_CACHE);
+        Set<String> logins = keysOf(usersByLogin, userId);
+        Set<String> emails = keysOf(usersByEmail, userId);
+        Document user = change.getFullDocument();
+        if (user != null) {
+            addKey(logins, user.getString("login"));
+            addKey(emails, user.getString("email"));
+        }
+        for (String login : logins) {
+            evict(usersByLogin, login);
+            evict(accounts, login);
+        }
+        for (String email : emails) {
+            evict(usersByEmail, email);
+        }
+    }
+
+    private void clearAll() {
+        for (String name : new String[]{UserRepository.USERS_BY_LOGIN_CACHE, UserRepository.USERS_BY_EMAIL_CACHE, AccountCache.ACCOUNTS_CACHE}) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Finds the keys of the cached entries of a user, by scanning the cache, bounded by its maximum number of entries.
+     */
+    @SuppressWarnings("unchecked")
+    private static Set<String> keysOf(Cache cache, String userId) {
+        Set<String> keys = new HashSet<>();
+        if (cache == null || !(cache.getNativeCache() instanceof javax.cache.Cache)) {
+            return keys;
+        }
+        for (javax.cache.Cache.Entry<Object, Object> entry : (javax.cache.Cache<Object, Object>) cache.getNativeCache()) {
+            Object value = entry.getValue() instanceof Optional ? ((Optional<?>) entry.getValue()).orElse(null) : entry.getValue();
+            if (value instanceof User && userId.equals(((User) value).getId())) {
+                keys.add(String.valueOf(entry.getKey()));
+            }
+        }
+        return keys;
+    }
+
+    private static void addKey(Set<String> keys, String key) {
+        if (key != null) {
+            keys.add(key);
+        }
+    }
+
+    private static void evict(Cache cache, String key) {
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.search.SearchBulkProcessor;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reindexes the changed users.
+ * <p>
+ * The users are evicted from the caches by the {@link UserCacheEvictor} of every instance, as this handler only
+ * runs on the instance following the change streams.
+ */
+@Component
+public class UserChangeHandler implements ChangeStreamHandler {
+
+    private final SearchBulkProcessor searchBulkProcessor;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final String collection;
+
+    public UserChangeHandler(SearchBulkProcessor searchBulkProcessor, MongoTemplate mongoTemplate) {
+        this.searchBulkProcessor = searchBulkProcessor;
+        this.mongoTemplate = mongoTemplate;
+        this.collection = mongoTemplate.getCollectionName(User.class);
+    }
+
+    @Override
+    public String getCollection() {
+        return collection;
+    }
+
+    @Override
+    public void handle(List<ChangeStreamDocument<Document>> changes) {
+        for (Map.Entry<String, Document> state : ChangeStreamHandler.latestStates(changes).entrySet()) {
+            if (state.getValue() == null) {
+                searchBulkProcessor.delete(User.class, state.getKey());
+            } else {
+                searchBulkProcessor.index(mongoTemplate.getConverter().read(User.class, state.getValue()));
+            }
+        }
+    }
+}
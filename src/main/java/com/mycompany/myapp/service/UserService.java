@@ -3,24 +3,38 @@ package com.mycompany.myapp.service;
 import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
-import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.repository.search.SearchBulkProcessor;
 import com.mycompany.myapp.repository.search.UserSearchRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.AuthorityRegistry;
 import com.mycompany.myapp.security.SecurityUtils;
 import com.mycompany.myapp.service.dto.UserDTO;
 import com.mycompany.myapp.service.util.RandomUtil;
 import com.mycompany.myapp.web.rest.errors.*;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoServerException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -32,6 +46,14 @@ import java.util.stream.Collectors;
 @Service
 public class UserService {
 
+    public static final String CLEANUP_METRIC = "users.cleanup";
+
+    public static final String CLEANUP_DELETED_METRIC = "users.cleanup.deleted";
+
+    private static final int CLEANUP_CHUNK_SIZE = 500;
+
+    private static final int REGISTRATION_ATTEMPTS = 3;
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
@@ -40,16 +62,36 @@ public class UserService {
 
     private final UserSearchRepository userSearchRepository;
 
-    private final AuthorityRepository authorityRepository;
+    private final AuthorityRegistry authorityRegistry;
 
     private final CacheManager cacheManager;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserSearchRepository userSearchRepository, AuthorityRepository authorityRepository, CacheManager cacheManager) {
+    private final MongoTemplate mongoTemplate;
+
+    private final SearchBulkProcessor searchBulkProcessor;
+
+    private final SchedulerLock schedulerLock;
+
+    private final Timer cleanupTimer;
+
+    private final Counter cleanupDeleted;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserSearchRepository userSearchRepository, AuthorityRegistry authorityRegistry, CacheManager cacheManager,
+                       MongoTemplate mongoTemplate, SearchBulkProcessor searchBulkProcessor, SchedulerLock schedulerLock, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.userSearchRepository = userSearchRepository;
-        this.authorityRepository = authorityRepository;
+        this.authorityRegistry = authorityRegistry;
         this.cacheManager = cacheManager;
+        this.mongoTemplate = mongoTemplate;
+        this.searchBulkProcessor = searchBulkProcessor;
+        this.schedulerLock = schedulerLock;
+        this.cleanupTimer = Timer.builder(CLEANUP_METRIC)
+            .description("Duration of the removal of the not activated users")
+            .register(meterRegistry);
+        this.cleanupDeleted = Counter.builder(CLEANUP_DELETED_METRIC)
+            .description("Number of not activated users removed")
+            .register(meterRegistry);
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -93,19 +135,19 @@ public class UserService {
             });
     }
 
+    /**
+     * Registers a new, not activated, user.
+     * <p>
+     * The user is inserted right away, the unique login and email indexes detecting the users already
+     * registered. A not activated user holding the login or the email is removed, and the insert retried.
+     *
+     * @param userDTO the user to register.
+     * @param password the password of the user.
+     * @return the registered user.
+     * @throws LoginAlreadyUsedException if the login is used by an activated user.
+     * @throws EmailAlreadyUsedException if the email is used by an activated user.
+     */
     public User registerUser(UserDTO userDTO, String password) {
-        userRepository.findOneByLogin(userDTO.getLogin().toLowerCase()).ifPresent(existingUser -> {
-            boolean removed = removeNonActivatedUser(existingUser);
-            if (!removed) {
-                throw new LoginAlreadyUsedException();
-            }
-        });
-        userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()).ifPresent(existingUser -> {
-            boolean removed = removeNonActivatedUser(existingUser);
-            if (!removed) {
-                throw new EmailAlreadyUsedException();
-            }
-        });
         User newUser = new User();
         String encryptedPassword = passwordEncoder.encode(password);
         newUser.setLogin(userDTO.getLogin().toLowerCase());
@@ -121,24 +163,62 @@ public class UserService {
         // new user gets registration key
         newUser.setActivationKey(RandomUtil.generateActivationKey());
         Set<Authority> authorities = new HashSet<>();
-        authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
+        authorityRegistry.find(AuthoritiesConstants.USER).ifPresent(authorities::add);
         newUser.setAuthorities(authorities);
-        userRepository.save(newUser);
+        // Each retry follows the removal of a user, so there is at most one for the login and one for the email
+        for (int attempt = 1; ; attempt++) {
+            try {
+                mongoTemplate.insert(newUser);
+                break;
+            } catch (DuplicateKeyException e) {
+                if (!isDuplicateKeyError(e)) {
+                    throw e;
+                }
+                // The error does not reliably name the index, so look up which key is already used
+                if (exists("login", newUser.getLogin())) {
+                    if (attempt == REGISTRATION_ATTEMPTS || !removeNonActivatedUser("login", newUser.getLogin())) {
+                        throw new LoginAlreadyUsedException();
+                    }
+                } else if (exists("email", newUser.getEmail())) {
+                    if (attempt == REGISTRATION_ATTEMPTS || !removeNonActivatedUser("email", newUser.getEmail())) {
+                        throw new EmailAlreadyUsedException();
+                    }
+                } else if (attempt == REGISTRATION_ATTEMPTS) {
+                    // The conflicting user was removed meanwhile, each time
+                    throw e;
+                }
+            }
+        }
         userSearchRepository.save(newUser);
         this.clearUserCaches(newUser);
         log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
 
-    private boolean removeNonActivatedUser(User existingUser){
-        if (existingUser.getActivated()) {
-             return false;
+    /**
+     * Removes the not activated user having the given value of a unique field, in a single round-trip.
+     *
+     * @return {@code true} if a user was removed, {@code false} if the user is activated.
+     */
+    private boolean removeNonActivatedUser(String field, String value) {
+        User existingUser = mongoTemplate.findAndRemove(
+            new Query(Criteria.where(field).is(value).and("activated").is(false)), User.class);
+        if (existingUser == null) {
+            return false;
         }
-        userRepository.delete(existingUser);
         this.clearUserCaches(existingUser);
         return true;
     }
 
+    private boolean exists(String field, String value) {
+        return mongoTemplate.exists(new Query(Criteria.where(field).is(value)), User.class);
+    }
+
+    private static boolean isDuplicateKeyError(DuplicateKeyException e) {
+        return e.getCause() instanceof MongoServerException
+            && ErrorCategory.fromErrorCode(((MongoServerException) e.getCause()).getCode()) == ErrorCategory.DUPLICATE_KEY;
+    }
+
     public User createUser(UserDTO userDTO) {
         User user = new User();
         user.setLogin(userDTO.getLogin().toLowerCase());
@@ -158,7 +238,7 @@ public class UserService {
         user.setActivated(true);
         if (userDTO.getAuthorities() != null) {
             Set<Authority> authorities = userDTO.getAuthorities().stream()
-                .map(authorityRepository::findById)
+                .map(authorityRegistry::find)
                 .filter(Optional::isPresent)
                 .map(Optional::get)
                 .collect(Collectors.toSet());
@@ -219,7 +299,7 @@ public class UserService {
                 Set<Authority> managedAuthorities = user.getAuthorities();
                 managedAuthorities.clear();
                 userDTO.getAuthorities().stream()
-                    .map(authorityRepository::findById)
+                    .map(authorityRegistry::find)
                     .filter(Optional::isPresent)
                     .map(Optional::get)
                     .forEach(managedAuthorities::add);
@@ -276,18 +356,65 @@ public class UserService {
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am), and only runs on one instance at a time.
+     * The users are deleted by chunks, without loading them entirely.
      */
     @Scheduled(cron = "0 0 1 * * ?")
     public void removeNotActivatedUsers() {
-        userRepository
-            .findAllByActivatedIsFalseAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(user -> {
-                log.debug("Deleting not activated user {}", user.getLogin());
-                userRepository.delete(user);
-                userSearchRepository.delete(user);
-                this.clearUserCaches(user);
-            });
+        schedulerLock.runLocked("removeNotActivatedUsers", Duration.ofHours(1), Duration.ofSeconds(10),
+            () -> cleanupTimer.record(this::removeNotActivatedUsersByChunks));
+    }
+
+    private void removeNotActivatedUsersByChunks() {
+        String collection = mongoTemplate.getCollectionName(User.class);
+        Criteria notActivated = Criteria.where("activated").is(false)
+            .and("created_date").lt(Date.from(Instant.now().minus(3, ChronoUnit.DAYS)));
+        Query candidates = new Query(notActivated);
+        candidates.fields().include("login").include("email");
+        List<Object> ids = new ArrayList<>(CLEANUP_CHUNK_SIZE);
+        Set<Object> logins = new HashSet<>();
+        Set<Object> emails = new HashSet<>();
+        long deleted = 0;
+        try (CloseableIterator<Document> iterator = mongoTemplate.stream(candidates, Document.class, collection)) {
+            while (iterator.hasNext()) {
+                Document user = iterator.next();
+                ids.add(user.get("_id"));
+                Optional.ofNullable(user.getString("login")).ifPresent(logins::add);
+                Optional.ofNullable(user.getString("email")).ifPresent(emails::add);
+                if (ids.size() == CLEANUP_CHUNK_SIZE || !iterator.hasNext()) {
+                    // The criteria are applied again, in case a user was activated in the meantime
+                    long removed = mongoTemplate.remove(new Query(Criteria.where("_id").in(ids).andOperator(notActivated)), collection)
+                        .getDeletedCount();
+                    if (removed < ids.size()) {
+                        // The users activated in the meantime stay indexed
+                        Query remaining = new Query(Criteria.where("_id").in(ids));
+                        remaining.fields().include("_id");
+                        mongoTemplate.find(remaining, Document.class, collection).forEach(user -> ids.remove(user.get("_id")));
+                    }
+                    deleted += removed;
+                    ids.forEach(id -> searchBulkProcessor.delete(User.class, id.toString()));
+                    evictAll(UserRepository.USERS_BY_LOGIN_CACHE, logins);
+                    evictAll(UserRepository.USERS_BY_EMAIL_CACHE, emails);
+                    evictAll(AccountCache.ACCOUNTS_CACHE, logins);
+                    ids.clear();
+                    logins.clear();
+                    emails.clear();
+                }
+            }
+        }
+        searchBulkProcessor.flush();
+        cleanupDeleted.increment(deleted);
+        log.debug("Deleted {} not activated users", deleted);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evictAll(String cacheName, Set<Object> keys) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(cacheName));
+        if (cache.getNativeCache() instanceof javax.cache.Cache) {
+            ((javax.cache.Cache<Object, Object>) cache.getNativeCache()).removeAll(keys);
+        } else {
+            keys.forEach(cache::evict);
+        }
     }
 
     /**
@@ -295,11 +422,12 @@ public class UserService {
      * @return a list of all the authorities.
      */
     public List<String> getAuthorities() {
-        return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
+        return authorityRegistry.getAuthorityNames();
     }
 
     private void clearUserCaches(User user) {
         Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
         Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+        Objects.requireNonNull(cacheManager.getCache(AccountCache.ACCOUNTS_CACHE)).evict(user.getLogin());
     }
 }
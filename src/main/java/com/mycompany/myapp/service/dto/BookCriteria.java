@@ -0,0 +1,139 @@
+package com.mycompany.myapp.service.dto;
+
+import io.github.jhipster.service.filter.BigDecimalFilter;
+import io.github.jhipster.service.filter.LocalDateFilter;
+import io.github.jhipster.service.filter.StringFilter;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Criteria class for the {@link com.mycompany.myapp.domain.Book} entity. This class is used
+ * in {@link com.mycompany.myapp.web.rest.BookResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /books?price.greaterThan=5&title.contains=something&authorName.equals=someone}
+ * As Spring is unable to properly convert the types, unless specific {@link io.github.jhipster.service.filter.Filter}
+ * class are used, we need to use fix type specific filters.
+ * A date or price range is expressed by combining {@code greaterOrEqualThan} and {@code lessOrEqualThan}.
+ */
+public class BookCriteria implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private StringFilter id;
+
+    private StringFilter title;
+
+    private StringFilter description;
+
+    private LocalDateFilter publicationDate;
+
+    private BigDecimalFilter price;
+
+    private StringFilter authorId;
+
+    private StringFilter authorName;
+
+    public StringFilter getId() {
+        return id;
+    }
+
+    public void setId(StringFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getTitle() {
+        return title;
+    }
+
+    public void setTitle(StringFilter title) {
+        this.title = title;
+    }
+
+    public StringFilter getDescription() {
+        return description;
+    }
+
+    public void setDescription(StringFilter description) {
+        this.description = description;
+    }
+
+    public LocalDateFilter getPublicationDate() {
+        return publicationDate;
+    }
+
+    public void setPublicationDate(LocalDateFilter publicationDate) {
+        this.publicationDate = publicationDate;
+    }
+
+    public BigDecimalFilter getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimalFilter price) {
+        this.price = price;
+    }
+
+    public StringFilter getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(StringFilter authorId) {
+        this.authorId = authorId;
+    }
+
+    public StringFilter getAuthorName() {
+        return authorName;
+    }
+
+    public void setAuthorName(StringFilter authorName) {
+        this.authorName = authorName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final BookCriteria that = (BookCriteria) o;
+        return
+            Objects.equals(id, that.id) &&
+            Objects.equals(title, that.title) &&
+            Objects.equals(description, that.description) &&
+            Objects.equals(publicationDate, that.publicationDate) &&
+            Objects.equals(price, that.price) &&
+            Objects.equals(authorId, that.authorId) &&
+            Objects.equals(authorName, that.authorName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+        id,
+        title,
+        description,
+        publicationDate,
+        price,
+        authorId,
+        authorName
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "BookCriteria{" +
+                (id != null ? "id=" + id + ", " : "") +
+                (title != null ? "title=" + title + ", " : "") +
+                (description != null ? "description=" + description + ", " : "") +
+                (publicationDate != null ? "publicationDate=" + publicationDate + ", " : "") +
+                (price != null ? "price=" + price + ", " : "") +
+                (authorId != null ? "authorId=" + authorId + ", " : "") +
+                (authorName != null ? "authorName=" + authorName + ", " : "") +
+            "}";
+    }
+
+}
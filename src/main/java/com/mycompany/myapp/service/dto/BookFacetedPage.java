@@ -0,0 +1,27 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.Book;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A page of book search hits, with the facets of the whole search.
+ */
+public class BookFacetedPage extends PageImpl<Book> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BookFacetsDTO facets;
+
+    public BookFacetedPage(List<Book> content, Pageable pageable, long total, BookFacetsDTO facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    public BookFacetsDTO getFacets() {
+        return facets;
+    }
+}
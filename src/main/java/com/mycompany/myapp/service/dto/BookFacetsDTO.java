@@ -0,0 +1,52 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the facets of a book search: price bands, publication years and top authors.
+ */
+public class BookFacetsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<FacetBucketDTO> priceBands = new ArrayList<>();
+
+    private List<FacetBucketDTO> publicationYears = new ArrayList<>();
+
+    private List<FacetBucketDTO> topAuthors = new ArrayList<>();
+
+    public List<FacetBucketDTO> getPriceBands() {
+        return priceBands;
+    }
+
+    public void setPriceBands(List<FacetBucketDTO> priceBands) {
+        this.priceBands = priceBands;
+    }
+
+    public List<FacetBucketDTO> getPublicationYears() {
+        return publicationYears;
+    }
+
+    public void setPublicationYears(List<FacetBucketDTO> publicationYears) {
+        this.publicationYears = publicationYears;
+    }
+
+    public List<FacetBucketDTO> getTopAuthors() {
+        return topAuthors;
+    }
+
+    public void setTopAuthors(List<FacetBucketDTO> topAuthors) {
+        this.topAuthors = topAuthors;
+    }
+
+    @Override
+    public String toString() {
+        return "BookFacetsDTO{" +
+            "priceBands=" + priceBands +
+            ", publicationYears=" + publicationYears +
+            ", topAuthors=" + topAuthors +
+            "}";
+    }
+}
@@ -0,0 +1,102 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DTO representing the statistics of the catalog: books per author and per publication year, and the price distribution.
+ * <p>
+ * The price percentiles are approximate, and refreshed periodically: {@code pricesRefreshedAt} tells when.
+ */
+public class BookStatisticsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long bookCount;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    private Map<String, BigDecimal> pricePercentiles = new LinkedHashMap<>();
+
+    private Instant pricesRefreshedAt;
+
+    private List<StatisticsBucketDTO> authors = new ArrayList<>();
+
+    private List<StatisticsBucketDTO> publicationYears = new ArrayList<>();
+
+    public long getBookCount() {
+        return bookCount;
+    }
+
+    public void setBookCount(long bookCount) {
+        this.bookCount = bookCount;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Map<String, BigDecimal> getPricePercentiles() {
+        return pricePercentiles;
+    }
+
+    public void setPricePercentiles(Map<String, BigDecimal> pricePercentiles) {
+        this.pricePercentiles = pricePercentiles;
+    }
+
+    public Instant getPricesRefreshedAt() {
+        return pricesRefreshedAt;
+    }
+
+    public void setPricesRefreshedAt(Instant pricesRefreshedAt) {
+        this.pricesRefreshedAt = pricesRefreshedAt;
+    }
+
+    public List<StatisticsBucketDTO> getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(List<StatisticsBucketDTO> authors) {
+        this.authors = authors;
+    }
+
+    public List<StatisticsBucketDTO> getPublicationYears() {
+        return publicationYears;
+    }
+
+    public void setPublicationYears(List<StatisticsBucketDTO> publicationYears) {
+        this.publicationYears = publicationYears;
+    }
+
+    @Override
+    public String toString() {
+        return "BookStatisticsDTO{" +
+            "bookCount=" + bookCount +
+            ", minPrice=" + minPrice +
+            ", maxPrice=" + maxPrice +
+            ", pricePercentiles=" + pricePercentiles +
+            ", pricesRefreshedAt=" + pricesRefreshedAt +
+            ", authors=" + authors +
+            ", publicationYears=" + publicationYears +
+            "}";
+    }
+}
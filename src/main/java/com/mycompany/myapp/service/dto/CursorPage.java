@@ -0,0 +1,50 @@
+package com.mycompany.myapp.service.dto;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A page of search hits, with the cursor to fetch the next page.
+ *
+ * @param <T> the type of the hits.
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the cursor of the next page, or {@code null} if this page is the last one.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @param converter the converter of the hits.
+     * @param <U> the type of the converted hits.
+     * @return a page of the converted hits, with the same cursor.
+     */
+    public <U> CursorPage<U> map(Function<? super T, ? extends U> converter) {
+        return new CursorPage<>(content.stream().map(converter).collect(Collectors.toList()), nextCursor);
+    }
+
+    @Override
+    public String toString() {
+        return "CursorPage{" +
+            "content=" + content +
+            ", nextCursor='" + nextCursor + '\'' +
+            "}";
+    }
+}
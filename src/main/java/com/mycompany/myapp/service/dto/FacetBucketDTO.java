@@ -0,0 +1,48 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing a bucket of a search facet: a value and the number of matching documents.
+ */
+public class FacetBucketDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String key;
+
+    private long count;
+
+    public FacetBucketDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public FacetBucketDTO(String key, long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return "FacetBucketDTO{" +
+            "key='" + key + '\'' +
+            ", count=" + count +
+            "}";
+    }
+}
@@ -0,0 +1,61 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * A DTO representing a group of books in the catalog statistics: a key, the number of books and their average price.
+ */
+public class StatisticsBucketDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String key;
+
+    private long count;
+
+    private BigDecimal averagePrice;
+
+    public StatisticsBucketDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public StatisticsBucketDTO(String key, long count, BigDecimal averagePrice) {
+        this.key = key;
+        this.count = count;
+        this.averagePrice = averagePrice;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getAveragePrice() {
+        return averagePrice;
+    }
+
+    public void setAveragePrice(BigDecimal averagePrice) {
+        this.averagePrice = averagePrice;
+    }
+
+    @Override
+    public String toString() {
+        return "StatisticsBucketDTO{" +
+            "key='" + key + '\'' +
+            ", count=" + count +
+            ", averagePrice=" + averagePrice +
+            "}";
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.myapp.service.mapper;
+
+import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.search.AuthorDocument;
+import com.mycompany.myapp.domain.search.BookDocument;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Mapper for the entities {@link Book} and {@link Author} and their search documents
+ * {@link BookDocument} and {@link AuthorDocument}.
+ * <p>
+ * Entities mapped back from search documents are partial: the author of a book only has its id and
+ * name, and the books of an author are not set.
+ */
+@Service
+public class SearchDocumentMapper {
+
+    public BookDocument bookToBookDocument(Book book) {
+        if (book == null) {
+            return null;
+        }
+        BookDocument document = new BookDocument();
+        document.setId(book.getId());
+        document.setTitle(book.getTitle());
+        document.setDescription(book.getDescription());
+        document.setPublicationDate(book.getPublicationDate());
+        document.setPrice(book.getPrice());
+        document.setAuthorName(book.getAuthorName());
+        if (book.getName() != null) {
+            document.setAuthorId(book.getName().getId());
+            if (document.getAuthorName() == null) {
+                document.setAuthorName(book.getName().getName());
+            }
+        }
+        return document;
+    }
+
+    public Book bookDocumentToBook(BookDocument document) {
+        if (document == null) {
+            return null;
+        }
+        Book book = new Book()
+            .title(document.getTitle())
+            .description(document.getDescription())
+            .publicationDate(document.getPublicationDate())
+            .price(document.getPrice())
+            .authorName(document.getAuthorName());
+        book.setId(document.getId());
+        if (document.getAuthorId() != null) {
+            Author author = new Author().name(document.getAuthorName());
+            author.setId(document.getAuthorId());
+            book.setName(author);
+        }
+        return book;
+    }
+
+    public AuthorDocument authorToAuthorDocument(Author author, long bookCount) {
+        if (author == null) {
+            return null;
+        }
+        AuthorDocument document = new AuthorDocument();
+        document.setId(author.getId());
+        document.setName(author.getName());
+        document.setBirthDate(author.getBirthDate());
+        document.setBookCount(bookCount);
+        return document;
+    }
+
+    public Author authorDocumentToAuthor(AuthorDocument document) {
+        if (document == null) {
+            return null;
+        }
+        Author author = new Author()
+            .name(document.getName())
+            .birthDate(document.getBirthDate());
+        author.setId(document.getId());
+        return author;
+    }
+}
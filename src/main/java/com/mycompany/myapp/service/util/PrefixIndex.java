@@ -0,0 +1,204 @@
+package com.mycompany.myapp.service.util;
+
+import java.util.*;
+
+/**
+ * Immutable in-memory index serving the top weighted suggestions starting with a prefix.
+ * <p>
+ * Each suggestion is indexed under every one of its words, so "pot" suggests "Harry Potter".
+ * Keys are kept in a sorted array, so the keys starting with a prefix form a contiguous range found
+ * by binary search. A range-maximum tree over the weights then yields the best suggestions of that
+ * range in {@code O(size * log(n))}, whatever the number of keys matching the prefix.
+ */
+public final class PrefixIndex {
+
+    private static final PrefixIndex EMPTY = new Builder().build();
+
+    private final String[] keys;
+
+    private final String[] suggestions;
+
+    private final long[] weights;
+
+    /**
+     * Bottom-up segment tree: {@code tree[n + i] = i}, and each parent holds the best of its two children.
+     */
+    private final int[] tree;
+
+    private PrefixIndex(String[] keys, String[] suggestions, long[] weights) {
+        this.keys = keys;
+        this.suggestions = suggestions;
+        this.weights = weights;
+        int n = keys.length;
+        this.tree = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            tree[n + i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            tree[i] = best(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    /**
+     * @return an index without any suggestion.
+     */
+    public static PrefixIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return a builder of a new index.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the suggestions having a word starting with the prefix, by decreasing weight.
+     * Suggestions of the same weight are returned in alphabetical order.
+     *
+     * @param prefix the prefix typed by the user, case-insensitive.
+     * @param size the maximum number of suggestions to return.
+     * @return the suggestions.
+     */
+    public List<String> suggest(String prefix, int size) {
+        String normalizedPrefix = normalize(prefix);
+        if (normalizedPrefix.isEmpty() || size <= 0) {
+            return Collections.emptyList();
+        }
+        int from = lowerBound(normalizedPrefix);
+        int to = lowerBound(normalizedPrefix + Character.MAX_VALUE);
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        // Ranges [from, to) to explore, ordered by the best key they contain
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> a[2] == b[2] ? 0 : best(a[2], b[2]) == a[2] ? -1 : 1);
+        ranges.add(new int[]{from, to, bestInRange(from, to)});
+        Set<String> result = new LinkedHashSet<>();
+        while (result.size() < size && !ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            int bestKey = range[2];
+            result.add(suggestions[bestKey]);
+            if (range[0] < bestKey) {
+                ranges.add(new int[]{range[0], bestKey, bestInRange(range[0], bestKey)});
+            }
+            if (bestKey + 1 < range[1]) {
+                ranges.add(new int[]{bestKey + 1, range[1], bestInRange(bestKey + 1, range[1])});
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * @return the number of indexed keys.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int bestInRange(int from, int to) {
+        int best = -1;
+        int n = keys.length;
+        for (int left = from + n, right = to + n; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                best = best(best, tree[left++]);
+            }
+            if ((right & 1) == 1) {
+                best = best(best, tree[--right]);
+            }
+        }
+        return best;
+    }
+
+    private int best(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        if (weights[a] != weights[b]) {
+            return weights[a] > weights[b] ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builder of a {@link PrefixIndex}.
+     */
+    public static final class Builder {
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a suggestion, under each of its words.
+         *
+         * @param suggestion the suggestion, returned as is.
+         * @param weight the weight of the suggestion, the highest weights being suggested first.
+         * @return this builder.
+         */
+        public Builder add(String suggestion, long weight) {
+            String normalized = normalize(suggestion);
+            for (int i = 0; i < normalized.length(); i++) {
+                if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                    entries.add(new Entry(normalized.substring(i), suggestion, weight));
+                }
+            }
+            return this;
+        }
+
+        /**
+         * @return the index of the added suggestions.
+         */
+        public PrefixIndex build() {
+            entries.sort(Comparator.comparing((Entry entry) -> entry.key).thenComparing(entry -> entry.suggestion));
+            int n = entries.size();
+            String[] keys = new String[n];
+            String[] suggestions = new String[n];
+            long[] weights = new long[n];
+            for (int i = 0; i < n; i++) {
+                Entry entry = entries.get(i);
+                keys[i] = entry.key;
+                suggestions[i] = entry.suggestion;
+                weights[i] = entry.weight;
+            }
+            return new PrefixIndex(keys, suggestions, weights);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+
+        private final String suggestion;
+
+        private final long weight;
+
+        private Entry(String key, String suggestion, long weight) {
+            this.key = key;
+            this.suggestion = suggestion;
+            this.weight = weight;
+        }
+    }
+}
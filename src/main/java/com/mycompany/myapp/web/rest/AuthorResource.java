@@ -1,8 +1,18 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.search.AuthorDocument;
 import com.mycompany.myapp.repository.AuthorRepository;
+import com.mycompany.myapp.repository.SortIndexVerifier;
 import com.mycompany.myapp.repository.search.AuthorSearchRepository;
+import com.mycompany.myapp.service.AuthorUpdatedEvent;
+import com.mycompany.myapp.service.BookQueryService;
+import com.mycompany.myapp.service.ChangeStreamConsumer;
+import com.mycompany.myapp.service.SearchCursorService;
+import com.mycompany.myapp.service.SearchIndexer;
+import com.mycompany.myapp.service.dto.CursorPage;
+import com.mycompany.myapp.service.mapper.SearchDocumentMapper;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 
 import io.github.jhipster.web.util.HeaderUtil;
@@ -11,14 +21,17 @@ import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.net.URI;
@@ -49,9 +62,32 @@ public class AuthorResource {
 
     private final AuthorSearchRepository authorSearchRepository;
 
-    public AuthorResource(AuthorRepository authorRepository, AuthorSearchRepository authorSearchRepository) {
+    private final SortIndexVerifier sortIndexVerifier;
+
+    private final BookQueryService bookQueryService;
+
+    private final SearchCursorService searchCursorService;
+
+    private final SearchIndexer searchIndexer;
+
+    private final SearchDocumentMapper searchDocumentMapper;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final ChangeStreamConsumer changeStreamConsumer;
+
+    public AuthorResource(AuthorRepository authorRepository, AuthorSearchRepository authorSearchRepository, SortIndexVerifier sortIndexVerifier,
+                          BookQueryService bookQueryService, SearchCursorService searchCursorService, SearchIndexer searchIndexer, SearchDocumentMapper searchDocumentMapper,
+                          ApplicationEventPublisher applicationEventPublisher, ChangeStreamConsumer changeStreamConsumer) {
         this.authorRepository = authorRepository;
         this.authorSearchRepository = authorSearchRepository;
+        this.sortIndexVerifier = sortIndexVerifier;
+        this.bookQueryService = bookQueryService;
+        this.searchCursorService = searchCursorService;
+        this.searchIndexer = searchIndexer;
+        this.searchDocumentMapper = searchDocumentMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.changeStreamConsumer = changeStreamConsumer;
     }
 
     /**
@@ -68,7 +104,7 @@ public class AuthorResource {
             throw new BadRequestAlertException("A new author cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Author result = authorRepository.save(author);
-        authorSearchRepository.save(result);
+        searchIndexer.indexAuthor(result);
         return ResponseEntity.created(new URI("/api/authors/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
             .body(result);
@@ -90,7 +126,11 @@ public class AuthorResource {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
         Author result = authorRepository.save(author);
-        authorSearchRepository.save(result);
+        searchIndexer.indexAuthor(result);
+        if (!changeStreamConsumer.isRunning()) {
+            // Otherwise published by the AuthorChangeHandler, once the change is followed
+            applicationEventPublisher.publishEvent(new AuthorUpdatedEvent(result.getId(), result.getName()));
+        }
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, author.getId().toString()))
             .body(result);
@@ -105,6 +145,7 @@ public class AuthorResource {
     @GetMapping("/authors")
     public ResponseEntity<List<Author>> getAllAuthors(Pageable pageable, @RequestParam MultiValueMap<String, String> queryParams, UriComponentsBuilder uriBuilder) {
         log.debug("REST request to get a page of Authors");
+        sortIndexVerifier.verify(Author.class, pageable.getSort());
         Page<Author> page = authorRepository.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder.queryParams(queryParams), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -123,6 +164,22 @@ public class AuthorResource {
         return ResponseUtil.wrapOrNotFound(author);
     }
 
+    /**
+     * {@code GET  /authors/:id/books} : get the books of the "id" author.
+     *
+     * @param id the id of the author.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
+     */
+    @GetMapping("/authors/{id}/books")
+    public ResponseEntity<List<Book>> getAuthorBooks(@PathVariable String id, Pageable pageable, @RequestParam MultiValueMap<String, String> queryParams, UriComponentsBuilder uriBuilder) {
+        log.debug("REST request to get a page of the Books of Author : {}", id);
+        sortIndexVerifier.verify(Book.class, pageable.getSort());
+        Page<Book> page = bookQueryService.findByAuthor(id, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder.queryParams(queryParams), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
     /**
      * {@code DELETE  /authors/:id} : delete the "id" author.
      *
@@ -133,7 +190,7 @@ public class AuthorResource {
     public ResponseEntity<Void> deleteAuthor(@PathVariable String id) {
         log.debug("REST request to delete Author : {}", id);
         authorRepository.deleteById(id);
-        authorSearchRepository.deleteById(id);
+        searchIndexer.deleteAuthor(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id)).build();
     }
 
@@ -148,9 +205,45 @@ public class AuthorResource {
     @GetMapping("/_search/authors")
     public ResponseEntity<List<Author>> searchAuthors(@RequestParam String query, Pageable pageable, @RequestParam MultiValueMap<String, String> queryParams, UriComponentsBuilder uriBuilder) {
         log.debug("REST request to search for a page of Authors for query {}", query);
-        Page<Author> page = authorSearchRepository.search(queryStringQuery(query), pageable);
+        Page<Author> page = authorSearchRepository.search(queryStringQuery(query), pageable).map(searchDocumentMapper::authorDocumentToAuthor);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder.queryParams(queryParams), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code SEARCH  /_search/authors/cursor?query=:query} : search for the page of authors corresponding
+     * to the query, following a cursor.
+     *
+     * @param query the query of the author search.
+     * @param cursor the cursor returned in the {@code X-Next-Cursor} header of the previous page, if any.
+     * @param size the size of the page.
+     * @return the page of matching authors, with the cursor of the next page in the {@code X-Next-Cursor} header.
+     */
+    @GetMapping("/_search/authors/cursor")
+    public ResponseEntity<List<Author>> searchAuthorsWithCursor(@RequestParam String query, @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "20") int size) {
+        log.debug("REST request to search for a page of Authors for query {} after cursor {}", query, cursor);
+        CursorPage<Author> page = searchCursorService.search(ENTITY_NAME, AuthorDocument.class, queryStringQuery(query), cursor, size)
+            .map(searchDocumentMapper::authorDocumentToAuthor);
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            headers.add(SearchCursorService.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code SEARCH  /_search/authors/export?query=:query} : export all the authors corresponding
+     * to the query.
+     *
+     * @param query the query of the author search.
+     * @return the matching authors, as newline-delimited JSON.
+     */
+    @GetMapping(value = "/_search/authors/export", produces = SearchCursorService.NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAuthors(@RequestParam String query) {
+        log.debug("REST request to export the Authors for query {}", query);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(SearchCursorService.NDJSON_VALUE))
+            .body(out -> searchCursorService.export(ENTITY_NAME, queryStringQuery(query), out));
+    }
 }
@@ -1,9 +1,22 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.search.BookDocument;
 import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.SortIndexVerifier;
 import com.mycompany.myapp.repository.search.BookSearchRepository;
+import com.mycompany.myapp.service.BookAuthorNameUpdater;
+import com.mycompany.myapp.service.BookQueryService;
+import com.mycompany.myapp.service.BookSearchService;
+import com.mycompany.myapp.service.BookStatisticsService;
+import com.mycompany.myapp.service.SearchCursorService;
+import com.mycompany.myapp.service.SearchIndexer;
+import com.mycompany.myapp.service.dto.BookCriteria;
+import com.mycompany.myapp.service.dto.CursorPage;
+import com.mycompany.myapp.service.mapper.SearchDocumentMapper;
+import com.mycompany.myapp.service.dto.BookFacetedPage;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.vm.BookFacetedSearchVM;
 
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.PaginationUtil;
@@ -15,10 +28,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.net.URI;
@@ -49,9 +64,36 @@ public class BookResource {
 
     private final BookSearchRepository bookSearchRepository;
 
-    public BookResource(BookRepository bookRepository, BookSearchRepository bookSearchRepository) {
+    private final SortIndexVerifier sortIndexVerifier;
+
+    private final BookQueryService bookQueryService;
+
+    private final BookSearchService bookSearchService;
+
+    private final SearchCursorService searchCursorService;
+
+    private final SearchIndexer searchIndexer;
+
+    private final SearchDocumentMapper searchDocumentMapper;
+
+    private final BookAuthorNameUpdater bookAuthorNameUpdater;
+
+    private final BookStatisticsService bookStatisticsService;
+
+    public BookResource(BookRepository bookRepository, BookSearchRepository bookSearchRepository, SortIndexVerifier sortIndexVerifier,
+                        BookQueryService bookQueryService, BookSearchService bookSearchService, SearchCursorService searchCursorService,
+                        SearchIndexer searchIndexer, SearchDocumentMapper searchDocumentMapper, BookAuthorNameUpdater bookAuthorNameUpdater,
+                        BookStatisticsService bookStatisticsService) {
         this.bookRepository = bookRepository;
         this.bookSearchRepository = bookSearchRepository;
+        this.sortIndexVerifier = sortIndexVerifier;
+        this.bookQueryService = bookQueryService;
+        this.bookSearchService = bookSearchService;
+        this.searchCursorService = searchCursorService;
+        this.searchIndexer = searchIndexer;
+        this.searchDocumentMapper = searchDocumentMapper;
+        this.bookAuthorNameUpdater = bookAuthorNameUpdater;
+        this.bookStatisticsService = bookStatisticsService;
     }
 
     /**
@@ -67,8 +109,10 @@ public class BookResource {
         if (book.getId() != null) {
             throw new BadRequestAlertException("A new book cannot already have an ID", ENTITY_NAME, "idexists");
         }
+        bookAuthorNameUpdater.fillAuthorName(book);
         Book result = bookRepository.save(book);
-        bookSearchRepository.save(result);
+        searchIndexer.indexBook(result);
+        bookStatisticsService.updateContribution(null, result);
         return ResponseEntity.created(new URI("/api/books/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
             .body(result);
@@ -89,8 +133,11 @@ public class BookResource {
         if (book.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
+        bookAuthorNameUpdater.fillAuthorName(book);
+        BookStatisticsService.Contribution previous = bookStatisticsService.findContribution(book.getId());
         Book result = bookRepository.save(book);
-        bookSearchRepository.save(result);
+        searchIndexer.indexBook(result);
+        bookStatisticsService.updateContribution(previous, result);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, book.getId().toString()))
             .body(result);
@@ -100,16 +147,30 @@ public class BookResource {
      * {@code GET  /books} : get all the books.
      *
      * @param pageable the pagination information.
+     * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
      */
     @GetMapping("/books")
-    public ResponseEntity<List<Book>> getAllBooks(Pageable pageable, @RequestParam MultiValueMap<String, String> queryParams, UriComponentsBuilder uriBuilder) {
-        log.debug("REST request to get a page of Books");
-        Page<Book> page = bookRepository.findAll(pageable);
+    public ResponseEntity<List<Book>> getAllBooks(BookCriteria criteria, Pageable pageable, @RequestParam MultiValueMap<String, String> queryParams, UriComponentsBuilder uriBuilder) {
+        log.debug("REST request to get Books by criteria: {}", criteria);
+        sortIndexVerifier.verify(Book.class, pageable.getSort());
+        Page<Book> page = bookQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder.queryParams(queryParams), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+    * {@code GET  /books/count} : count all the books.
+    *
+    * @param criteria the criteria which the requested entities should match.
+    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+    */
+    @GetMapping("/books/count")
+    public ResponseEntity<Long> countBooks(BookCriteria criteria) {
+        log.debug("REST request to count Books by criteria: {}", criteria);
+        return ResponseEntity.ok().body(bookQueryService.countByCriteria(criteria));
+    }
+
     /**
      * {@code GET  /books/:id} : get the "id" book.
      *
@@ -132,8 +193,10 @@ public class BookResource {
     @DeleteMapping("/books/{id}")
     public ResponseEntity<Void> deleteBook(@PathVariable String id) {
         log.debug("REST request to delete Book : {}", id);
+        BookStatisticsService.Contribution previous = bookStatisticsService.findContribution(id);
         bookRepository.deleteById(id);
-        bookSearchRepository.deleteById(id);
+        searchIndexer.deleteBook(id);
+        bookStatisticsService.updateContribution(previous, null);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id)).build();
     }
 
@@ -148,9 +211,61 @@ public class BookResource {
     @GetMapping("/_search/books")
     public ResponseEntity<List<Book>> searchBooks(@RequestParam String query, Pageable pageable, @RequestParam MultiValueMap<String, String> queryParams, UriComponentsBuilder uriBuilder) {
         log.debug("REST request to search for a page of Books for query {}", query);
-        Page<Book> page = bookSearchRepository.search(queryStringQuery(query), pageable);
+        Page<Book> page = bookSearchRepository.search(queryStringQuery(query), pageable).map(searchDocumentMapper::bookDocumentToBook);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder.queryParams(queryParams), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code SEARCH  /_search/books/facets?query=:query} : search for the book corresponding
+     * to the query, with the facets of all the matching books.
+     *
+     * @param query the query of the book search.
+     * @param pageable the pagination information.
+     * @return the page of matching books, with the price bands, publication years and top authors of the search.
+     */
+    @GetMapping("/_search/books/facets")
+    public ResponseEntity<BookFacetedSearchVM> searchBooksWithFacets(@RequestParam String query, Pageable pageable, @RequestParam MultiValueMap<String, String> queryParams, UriComponentsBuilder uriBuilder) {
+        log.debug("REST request to search for a page of Books with facets for query {}", query);
+        BookFacetedPage page = bookSearchService.searchWithFacets(query, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder.queryParams(queryParams), page);
+        return ResponseEntity.ok().headers(headers).body(new BookFacetedSearchVM(page.getContent(), page.getFacets()));
+    }
+
+    /**
+     * {@code SEARCH  /_search/books/cursor?query=:query} : search for the page of books corresponding
+     * to the query, following a cursor.
+     *
+     * @param query the query of the book search.
+     * @param cursor the cursor returned in the {@code X-Next-Cursor} header of the previous page, if any.
+     * @param size the size of the page.
+     * @return the page of matching books, with the cursor of the next page in the {@code X-Next-Cursor} header.
+     */
+    @GetMapping("/_search/books/cursor")
+    public ResponseEntity<List<Book>> searchBooksWithCursor(@RequestParam String query, @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        log.debug("REST request to search for a page of Books for query {} after cursor {}", query, cursor);
+        CursorPage<Book> page = searchCursorService.search(ENTITY_NAME, BookDocument.class, queryStringQuery(query), cursor, size)
+            .map(searchDocumentMapper::bookDocumentToBook);
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            headers.add(SearchCursorService.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code SEARCH  /_search/books/export?query=:query} : export all the books corresponding
+     * to the query.
+     *
+     * @param query the query of the book search.
+     * @return the matching books, as newline-delimited JSON.
+     */
+    @GetMapping(value = "/_search/books/export", produces = SearchCursorService.NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam String query) {
+        log.debug("REST request to export the Books for query {}", query);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(SearchCursorService.NDJSON_VALUE))
+            .body(out -> searchCursorService.export(ENTITY_NAME, queryStringQuery(query), out));
+    }
 }
@@ -0,0 +1,60 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.CatalogDataGenerator;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for generating synthetic catalogs, to benchmark the application at scale.
+ */
+@RestController
+@RequestMapping("/api")
+public class CatalogDataResource {
+
+    private final Logger log = LoggerFactory.getLogger(CatalogDataResource.class);
+
+    private final CatalogDataGenerator catalogDataGenerator;
+
+    public CatalogDataResource(CatalogDataGenerator catalogDataGenerator) {
+        this.catalogDataGenerator = catalogDataGenerator;
+    }
+
+    /**
+     * {@code POST  /catalog/generate} : generate a synthetic catalog of authors and books.
+     *
+     * @param authors the number of authors to generate.
+     * @param books the number of books to generate.
+     * @param seed the seed of the catalog, the same seed generates the same catalog.
+     * @param parallelism the number of bulk inserts sent in parallel.
+     * @param index whether to reindex the whole catalog once generated.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)}, as the generation runs in the background,
+     * or with status {@code 400 (Bad Request)} if the counts are not positive or exceed the limits of the {@link CatalogDataGenerator}.
+     */
+    @PostMapping("/catalog/generate")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<Void> generateCatalog(@RequestParam(defaultValue = "10000") int authors,
+                                                @RequestParam(defaultValue = "1000000") long books,
+                                                @RequestParam(defaultValue = "42") long seed,
+                                                @RequestParam(defaultValue = "4") int parallelism,
+                                                @RequestParam(defaultValue = "false") boolean index) {
+        log.debug("REST request to generate {} Authors and {} Books with seed {}", authors, books, seed);
+        if (authors <= 0 || books < 0 || parallelism <= 0) {
+            throw new BadRequestAlertException("The counts must be positive", "catalog", "invalidcount");
+        }
+        if (authors > CatalogDataGenerator.MAX_AUTHORS || books > CatalogDataGenerator.MAX_BOOKS || parallelism > CatalogDataGenerator.MAX_PARALLELISM) {
+            throw new BadRequestAlertException("At most " + CatalogDataGenerator.MAX_AUTHORS + " authors, " + CatalogDataGenerator.MAX_BOOKS +
+                " books and " + CatalogDataGenerator.MAX_PARALLELISM + " parallel inserts can be generated", "catalog", "toomany");
+        }
+        catalogDataGenerator.generate(authors, books, seed, parallelism, index);
+        return ResponseEntity.accepted().build();
+    }
+}
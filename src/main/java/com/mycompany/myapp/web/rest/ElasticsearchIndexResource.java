@@ -0,0 +1,41 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.SearchIndexer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for managing the Elasticsearch indices.
+ */
+@RestController
+@RequestMapping("/api")
+public class ElasticsearchIndexResource {
+
+    private final Logger log = LoggerFactory.getLogger(ElasticsearchIndexResource.class);
+
+    private final SearchIndexer searchIndexer;
+
+    public ElasticsearchIndexResource(SearchIndexer searchIndexer) {
+        this.searchIndexer = searchIndexer;
+    }
+
+    /**
+     * {@code POST  /elasticsearch/index} : reindex all the books and authors into new indices, which replace the current ones once complete.
+     *
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)}, as the reindexing runs in the background.
+     */
+    @PostMapping("/elasticsearch/index")
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<Void> reindexAll() {
+        log.debug("REST request to reindex Elasticsearch");
+        searchIndexer.reindexAll();
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.service.BookStatisticsService;
+import com.mycompany.myapp.service.dto.BookStatisticsDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for the statistics of the catalog.
+ */
+@RestController
+@RequestMapping("/api")
+public class StatisticsResource {
+
+    private final Logger log = LoggerFactory.getLogger(StatisticsResource.class);
+
+    private final BookStatisticsService bookStatisticsService;
+
+    public StatisticsResource(BookStatisticsService bookStatisticsService) {
+        this.bookStatisticsService = bookStatisticsService;
+    }
+
+    /**
+     * {@code GET  /stats/books} : get the statistics of the books: per author, per publication year, and the price distribution.
+     *
+     * @return the statistics of the books.
+     */
+    @GetMapping("/stats/books")
+    public BookStatisticsDTO getBookStatistics() {
+        log.debug("REST request to get the Book statistics");
+        return bookStatisticsService.getStatistics();
+    }
+}
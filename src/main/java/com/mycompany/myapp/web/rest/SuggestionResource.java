@@ -0,0 +1,54 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.service.SuggestionService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for type-ahead suggestions on the catalog.
+ */
+@RestController
+@RequestMapping("/api")
+public class SuggestionResource {
+
+    private final Logger log = LoggerFactory.getLogger(SuggestionResource.class);
+
+    private final SuggestionService suggestionService;
+
+    public SuggestionResource(SuggestionService suggestionService) {
+        this.suggestionService = suggestionService;
+    }
+
+    /**
+     * {@code GET  /_suggest/books?prefix=:prefix} : suggest book titles having a word starting with the prefix.
+     *
+     * @param prefix the text typed by the user.
+     * @param size the maximum number of suggestions.
+     * @return the suggested titles.
+     */
+    @GetMapping("/_suggest/books")
+    public List<String> suggestBookTitles(@RequestParam String prefix, @RequestParam(defaultValue = "10") int size) {
+        log.debug("REST request to suggest Book titles for prefix {}", prefix);
+        return suggestionService.suggestBookTitles(prefix, size);
+    }
+
+    /**
+     * {@code GET  /_suggest/authors?prefix=:prefix} : suggest author names having a word starting with the prefix.
+     *
+     * @param prefix the text typed by the user.
+     * @param size the maximum number of suggestions.
+     * @return the suggested names.
+     */
+    @GetMapping("/_suggest/authors")
+    public List<String> suggestAuthorNames(@RequestParam String prefix, @RequestParam(defaultValue = "10") int size) {
+        log.debug("REST request to suggest Author names for prefix {}", prefix);
+        return suggestionService.suggestAuthorNames(prefix, size);
+    }
+}
@@ -6,7 +6,9 @@ import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.repository.search.UserSearchRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.MailService;
+import com.mycompany.myapp.service.SearchCursorService;
 import com.mycompany.myapp.service.UserService;
+import com.mycompany.myapp.service.dto.CursorPage;
 import com.mycompany.myapp.service.dto.UserDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import com.mycompany.myapp.web.rest.errors.EmailAlreadyUsedException;
@@ -20,21 +22,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.Valid;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
@@ -66,6 +69,8 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 @RequestMapping("/api")
 public class UserResource {
 
+    private static final String USER_INDEX = "user";
+
     private final Logger log = LoggerFactory.getLogger(UserResource.class);
 
     @Value("${jhipster.clientApp.name}")
@@ -79,12 +84,16 @@ public class UserResource {
 
     private final UserSearchRepository userSearchRepository;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService, UserSearchRepository userSearchRepository) {
+    private final SearchCursorService searchCursorService;
+
+    public UserResource(UserService userService, UserRepository userRepository, MailService mailService, UserSearchRepository userSearchRepository,
+                        SearchCursorService searchCursorService) {
 
         this.userService = userService;
         this.userRepository = userRepository;
         this.mailService = mailService;
         this.userSearchRepository = userSearchRepository;
+        this.searchCursorService = searchCursorService;
     }
 
     /**
@@ -198,15 +207,63 @@ public class UserResource {
     }
 
     /**
-     * {@code SEARCH /_search/users/:query} : search for the User corresponding to the query.
+     * {@code SEARCH /_search/users?query=:query} : search for the users corresponding to the query.
      *
      * @param query the query to search.
-     * @return the result of the search.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the page of matching users.
      */
-    @GetMapping("/_search/users/{query}")
-    public List<User> search(@PathVariable String query) {
-        return StreamSupport
-            .stream(userSearchRepository.search(queryStringQuery(query)).spliterator(), false)
-            .collect(Collectors.toList());
+    @GetMapping("/_search/users")
+    public ResponseEntity<List<User>> searchUsers(@RequestParam String query, Pageable pageable, @RequestParam MultiValueMap<String, String> queryParams, UriComponentsBuilder uriBuilder) {
+        log.debug("REST request to search for a page of Users for query {}", query);
+        Page<User> page = userSearchRepository.search(queryStringQuery(query), capPageSize(pageable));
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder.queryParams(queryParams), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code SEARCH /_search/users/cursor?query=:query} : search for the page of users corresponding
+     * to the query, following a cursor.
+     *
+     * @param query the query to search.
+     * @param cursor the cursor returned in the {@code X-Next-Cursor} header of the previous page, if any.
+     * @param size the size of the page.
+     * @param fields the fields of the users to return, all of them if none is given.
+     * @return the page of matching users, with the cursor of the next page in the {@code X-Next-Cursor} header.
+     */
+    @GetMapping("/_search/users/cursor")
+    public ResponseEntity<List<User>> searchUsersWithCursor(@RequestParam String query, @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int size,
+                                                            @RequestParam(required = false) String[] fields) {
+        log.debug("REST request to search for a page of Users for query {} after cursor {}", query, cursor);
+        CursorPage<User> page = searchCursorService.search(USER_INDEX, User.class, queryStringQuery(query), cursor, size, fields);
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            headers.add(SearchCursorService.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code SEARCH /_search/users/export?query=:query} : export all the users corresponding to the query.
+     *
+     * @param query the query to search.
+     * @param fields the fields of the users to export, all of them if none is given.
+     * @return the matching users, as newline-delimited JSON.
+     */
+    @GetMapping(value = "/_search/users/export", produces = SearchCursorService.NDJSON_VALUE)
+    @PreAuthorize("hasRole(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam String query, @RequestParam(required = false) String[] fields) {
+        log.debug("REST request to export the Users for query {}", query);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(SearchCursorService.NDJSON_VALUE))
+            .body(out -> searchCursorService.export(USER_INDEX, queryStringQuery(query), fields, out));
+    }
+
+    private static Pageable capPageSize(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getPageSize() > SearchCursorService.MAX_PAGE_SIZE) {
+            return PageRequest.of(pageable.isPaged() ? pageable.getPageNumber() : 0, SearchCursorService.MAX_PAGE_SIZE, pageable.getSort());
+        }
+        return pageable;
     }
 }
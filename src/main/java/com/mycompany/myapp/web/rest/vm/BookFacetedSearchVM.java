@@ -0,0 +1,49 @@
+package com.mycompany.myapp.web.rest.vm;
+
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.service.dto.BookFacetsDTO;
+
+import java.util.List;
+
+/**
+ * View Model object for a page of book search hits, returned together with the search facets.
+ */
+public class BookFacetedSearchVM {
+
+    private List<Book> hits;
+
+    private BookFacetsDTO facets;
+
+    public BookFacetedSearchVM() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BookFacetedSearchVM(List<Book> hits, BookFacetsDTO facets) {
+        this.hits = hits;
+        this.facets = facets;
+    }
+
+    public List<Book> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<Book> hits) {
+        this.hits = hits;
+    }
+
+    public BookFacetsDTO getFacets() {
+        return facets;
+    }
+
+    public void setFacets(BookFacetsDTO facets) {
+        this.facets = facets;
+    }
+
+    @Override
+    public String toString() {
+        return "BookFacetedSearchVM{" +
+            "hits=" + hits +
+            ", facets=" + facets +
+            "}";
+    }
+}
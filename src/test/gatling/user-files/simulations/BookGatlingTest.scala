@@ -97,4 +97,8 @@ class BookGatlingTest extends Simulation {
     setUp(
         users.inject(rampUsers(Integer.getInteger("users", 100)) during (Integer.getInteger("ramp", 1) minutes))
     ).protocols(httpConf)
+        .assertions(
+            global.responseTime.percentile3.lt(Integer.getInteger("p95", 500)),
+            global.failedRequests.percent.lte(1)
+        )
 }
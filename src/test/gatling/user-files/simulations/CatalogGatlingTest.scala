@@ -0,0 +1,222 @@
+import _root_.io.gatling.core.scenario.Simulation
+import ch.qos.logback.classic.{Level, LoggerContext}
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import org.slf4j.LoggerFactory
+
+import scala.concurrent.duration._
+import scala.util.Random
+
+/**
+ * Performance test of the catalog, with an open workload model mixing:
+ * <ul>
+ *     <li>readers browsing the books and authors, up to deep pages</li>
+ *     <li>readers searching the books, with and without facets</li>
+ *     <li>a burst of logins</li>
+ *     <li>editors writing books in bulk</li>
+ * </ul>
+ * The run fails when the 95th or 99th percentile of the response times, or the error rate, exceed their
+ * objectives, which can be overridden with the p95, p99 and errorRate system properties.
+ * <p>
+ * Before the run, a catalog of seedAuthors authors and seedBooks books is generated and indexed, unless the
+ * search already holds as many books, so that the pages and searches are measured on realistic data and
+ * checked to be full. Set seedBooks to 0 to run on the existing data.
+ */
+class CatalogGatlingTest extends Simulation {
+
+    val context: LoggerContext = LoggerFactory.getILoggerFactory.asInstanceOf[LoggerContext]
+    // Log all HTTP requests
+    //context.getLogger("io.gatling.http").setLevel(Level.valueOf("TRACE"))
+    // Log failed HTTP requests
+    //context.getLogger("io.gatling.http").setLevel(Level.valueOf("DEBUG"))
+
+    val baseURL = Option(System.getProperty("baseURL")) getOrElse """http://localhost:8080"""
+
+    val duration = Integer.getInteger("duration", 5).toInt.minutes
+    val readersPerSecond = Integer.getInteger("readers", 20).toDouble
+    val searchersPerSecond = Integer.getInteger("searchers", 10).toDouble
+    val logins = Integer.getInteger("logins", 200).toInt
+    val editors = Integer.getInteger("editors", 5).toInt
+    val seedAuthors = Integer.getInteger("seedAuthors", 10000).toInt
+    val seedBooks = Integer.getInteger("seedBooks", 100000).toInt
+    val seedTimeout = Integer.getInteger("seedTimeout", 15).toInt.minutes
+    // The browsed pages stay within the seeded books, so that they are all full
+    val maxPage = if (seedBooks > 0) math.min(Integer.getInteger("maxPage", 200).toInt, seedBooks / 20) else Integer.getInteger("maxPage", 200).toInt
+
+    val p95 = Integer.getInteger("p95", 500).toInt
+    val p99 = Integer.getInteger("p99", 1500).toInt
+    val errorRate = Option(System.getProperty("errorRate")).map(_.toDouble) getOrElse 1.0
+
+    val httpConf = http
+        .baseUrl(baseURL)
+        .acceptHeader("application/json")
+        .acceptEncodingHeader("gzip, deflate")
+        .connectionHeader("keep-alive")
+        .userAgentHeader("Gatling")
+
+    val headers_http_authentication = Map(
+        "Content-Type" -> """application/json""",
+        "Accept" -> """application/json"""
+    )
+
+    val headers_http_authenticated = Map(
+        "Accept" -> """application/json""",
+        "Authorization" -> "${access_token}"
+    )
+
+    def request(method: String, path: String, token: Option[String] = None, body: Option[String] = None): java.net.HttpURLConnection = {
+        val connection = new java.net.URL(baseURL + path).openConnection().asInstanceOf[java.net.HttpURLConnection]
+        connection.setRequestMethod(method)
+        connection.setRequestProperty("Accept", "application/json")
+        token.foreach(connection.setRequestProperty("Authorization", _))
+        body.foreach { content =>
+            connection.setDoOutput(true)
+            connection.setRequestProperty("Content-Type", "application/json")
+            connection.getOutputStream.write(content.getBytes("UTF-8"))
+        }
+        if (connection.getResponseCode >= 400) {
+            throw new IllegalStateException(s"$method $path failed with status ${connection.getResponseCode}")
+        }
+        connection
+    }
+
+    def indexedBooks(token: String): Long =
+        Option(request("GET", "/api/_search/books?query=*&size=1", Some(token)).getHeaderField("X-Total-Count")).map(_.toLong).getOrElse(0L)
+
+    before {
+        if (seedBooks > 0) {
+            val token = request("POST", "/api/authenticate", body = Some("""{"username":"admin", "password":"admin"}"""))
+                .getHeaderField("Authorization")
+            if (indexedBooks(token) < seedBooks) {
+                println(s"Generating $seedAuthors authors and $seedBooks books")
+                request("POST", s"/api/catalog/generate?authors=$seedAuthors&books=$seedBooks&seed=42&index=true", Some(token))
+                // The generated books are searchable once the reindex moved the aliases
+                val deadline = System.currentTimeMillis + seedTimeout.toMillis
+                while (indexedBooks(token) < seedBooks) {
+                    if (System.currentTimeMillis > deadline) {
+                        throw new IllegalStateException(s"The catalog was not indexed within $seedTimeout")
+                    }
+                    Thread.sleep(5000)
+                }
+            }
+        }
+    }
+
+    val random = new Random(42)
+
+    // Most readers stay on the first pages, a few go deep
+    val pages = Iterator.continually(Map(
+        "page" -> (if (random.nextInt(10) < 8) random.nextInt(5) else random.nextInt(maxPage)),
+        "sort" -> Seq("title,asc", "publicationDate,desc", "price,asc", "id,asc")(random.nextInt(4))
+    ))
+
+    val queries = Array(
+        Map("query" -> "night"),
+        Map("query" -> "title:war*"),
+        Map("query" -> "authorName:austen"),
+        Map("query" -> "price:[10 TO 20]"),
+        Map("query" -> "publicationDate:[1800-01-01 TO 1900-01-01]"),
+        Map("query" -> "*")
+    ).random
+
+    val books = Iterator.continually(Map(
+        "title" -> s"Book ${random.alphanumeric.take(12).mkString}",
+        "price" -> f"${5 + random.nextInt(5000) / 100.0}%.2f",
+        "year" -> (1800 + random.nextInt(220))
+    ))
+
+    val authenticate = exec(http("Authentication")
+        .post("/api/authenticate")
+        .headers(headers_http_authentication)
+        .body(StringBody("""{"username":"admin", "password":"admin"}""")).asJson
+        .check(header("Authorization").saveAs("access_token"))).exitHereIfFailed
+
+    val browse = scenario("Browse the catalog")
+        .exec(authenticate)
+        .repeat(5) {
+            feed(pages)
+            .exec(http("Get a page of books")
+            .get("/api/books?page=${page}&size=20&sort=${sort}")
+            .headers(headers_http_authenticated)
+            .check(status.is(200))
+            .check(jsonPath("$[*].id").count.is(20))
+            .check(jsonPath("$[*].id").findAll.saveAs("book_ids")))
+            .exec(http("Get a book")
+            .get("/api/books/${book_ids.random()}")
+            .headers(headers_http_authenticated)
+            .check(status.is(200))
+            .check(jsonPath("$.title").exists))
+            .pause(1 second, 3 seconds)
+        }
+        .exec(http("Get a page of authors")
+        .get("/api/authors?page=0&size=20")
+        .headers(headers_http_authenticated)
+        .check(status.is(200))
+        .check(jsonPath("$[*].id").count.is(20)))
+
+    val search = scenario("Search the catalog")
+        .exec(authenticate)
+        .repeat(3) {
+            feed(queries)
+            .randomSwitch(
+                70.0 -> exec(http("Search books")
+                    .get("/api/_search/books")
+                    .queryParam("query", "${query}")
+                    .headers(headers_http_authenticated)
+                    .check(status.is(200))
+                    .check(jsonPath("$[0].id").exists)),
+                30.0 -> exec(http("Search books with facets")
+                    .get("/api/_search/books/facets")
+                    .queryParam("query", "${query}")
+                    .headers(headers_http_authenticated)
+                    .check(status.is(200))
+                    .check(jsonPath("$.hits[0].id").exists)
+                    .check(jsonPath("$.facets.topAuthors[0].key").exists))
+            )
+            .pause(1 second, 2 seconds)
+        }
+
+    val login = scenario("Log in")
+        .exec(authenticate)
+        .exec(http("Get the account")
+        .get("/api/account")
+        .headers(headers_http_authenticated)
+        .check(status.is(200)))
+
+    val write = scenario("Write books in bulk")
+        .exec(authenticate)
+        .exec(http("Create an author")
+        .post("/api/authors")
+        .headers(headers_http_authenticated)
+        .body(StringBody("""{"name":"Author ${__uuid}", "birthDate":"1900-01-01"}""")).asJson
+        .check(status.is(201))
+        .check(jsonPath("$.id").saveAs("author_id"))).exitHereIfFailed
+        .repeat(100) {
+            feed(books)
+            .exec(http("Create a book")
+            .post("/api/books")
+            .headers(headers_http_authenticated)
+            .body(StringBody("""{
+                "title":"${title}"
+                , "description":"SAMPLE_TEXT"
+                , "publicationDate":"${year}-01-01"
+                , "price":"${price}"
+                , "name":{"id":"${author_id}"}
+                }""")).asJson
+            .check(status.is(201)))
+        }
+
+    setUp(
+        browse.inject(rampUsersPerSec(1) to readersPerSecond during (1 minute), constantUsersPerSec(readersPerSecond) during duration),
+        search.inject(rampUsersPerSec(1) to searchersPerSecond during (1 minute), constantUsersPerSec(searchersPerSecond) during duration),
+        login.inject(nothingFor(2 minutes), heavisideUsers(logins) during (10 seconds)),
+        write.inject(atOnceUsers(editors), nothingFor(duration / 2), atOnceUsers(editors))
+    ).protocols(httpConf)
+        .assertions(
+            global.responseTime.percentile3.lt(p95),
+            global.responseTime.percentile4.lt(p99),
+            global.failedRequests.percent.lte(errorRate),
+            details("Search books").responseTime.percentile3.lt(p95),
+            details("Get a page of books").responseTime.percentile3.lt(p95)
+        )
+}
@@ -0,0 +1,65 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.config.ElasticsearchConfiguration.CustomEntityMapper;
+import com.mycompany.myapp.domain.Book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the {@link CustomEntityMapper}.
+ */
+public class CustomEntityMapperTest {
+
+    private static final String SEARCH_RESPONSE = "{\"took\":3,\"timed_out\":false," +
+        "\"_shards\":{\"total\":5,\"successful\":5,\"skipped\":0,\"failed\":0}," +
+        "\"hits\":{\"total\":3,\"max_score\":1.0,\"hits\":[" +
+        "{\"_index\":\"book\",\"_type\":\"book\",\"_id\":\"book-1\",\"_score\":1.0,\"_source\":" +
+        "{\"id\":\"book-1\",\"title\":\"AAAAAAAAAA\",\"publicationDate\":\"1999-06-01\",\"price\":12.5,\"unknown\":{\"hits\":[]}}," +
+        "\"sort\":[1.0,\"book-1\"]}," +
+        "{\"_index\":\"book\",\"_type\":\"book\",\"_id\":\"book-2\",\"_score\":1.0}," +
+        "{\"_index\":\"book\",\"_type\":\"book\",\"_id\":\"book-3\",\"_score\":0.5,\"_source\":{\"id\":\"book-3\",\"title\":\"BBBBBBBBBB\"}}]}," +
+        "\"aggregations\":{\"top_authors\":{\"buckets\":[]}}}";
+
+    private CustomEntityMapper entityMapper;
+
+    @BeforeEach
+    public void setup() {
+        entityMapper = new CustomEntityMapper(new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    public void testMapHitsReadsTheSourceOfEachHit() throws Exception {
+        List<Book> books = entityMapper.mapHits(SEARCH_RESPONSE, Book.class);
+
+        assertThat(books).extracting(Book::getId).containsExactly("book-1", "book-3");
+        assertThat(books.get(0).getPublicationDate()).isEqualTo(LocalDate.of(1999, 6, 1));
+        assertThat(books.get(0).getPrice()).isEqualByComparingTo(new BigDecimal("12.5"));
+    }
+
+    @Test
+    public void testMapHitsOfAResponseWithoutHits() throws Exception {
+        assertThat(entityMapper.mapHits("{\"took\":1,\"hits\":{\"total\":0,\"hits\":[]}}", Book.class)).isEmpty();
+        assertThat(entityMapper.mapHits("{\"took\":1}", Book.class)).isEmpty();
+    }
+
+    @Test
+    public void testWriteToMatchesMapToString() throws Exception {
+        Book book = new Book().title("AAAAAAAAAA").publicationDate(LocalDate.of(1999, 6, 1)).price(new BigDecimal("12.5"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entityMapper.writeTo(book, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8.name())).isEqualTo(entityMapper.mapToString(book));
+        assertThat(entityMapper.mapToObject(entityMapper.mapToString(book), Book.class).getTitle()).isEqualTo("AAAAAAAAAA");
+    }
+}
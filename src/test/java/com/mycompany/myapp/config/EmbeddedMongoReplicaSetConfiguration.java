@@ -0,0 +1,75 @@
+package com.mycompany.myapp.config;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Collections;
+
+/**
+ * Initiates the embedded MongoDB as a single node replica set, when
+ * {@code spring.mongodb.embedded.storage.repl-set-name} is set, so that change streams can be tested.
+ * <p>
+ * The replica set is initiated as soon as the {@link MongoClient} is created, and before it is used,
+ * as writes fail until the node is elected primary.
+ */
+@Configuration
+public class EmbeddedMongoReplicaSetConfiguration {
+
+    private static final int ALREADY_INITIALIZED = 23;
+
+    @Bean
+    public static BeanPostProcessor replicaSetInitializer() {
+        return new ReplicaSetInitializer();
+    }
+
+    private static class ReplicaSetInitializer implements BeanPostProcessor, EnvironmentAware {
+
+        private String replicaSetName;
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            this.replicaSetName = environment.getProperty("spring.mongodb.embedded.storage.repl-set-name");
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof MongoClient && replicaSetName != null) {
+                initiate((MongoClient) bean);
+            }
+            return bean;
+        }
+
+        private void initiate(MongoClient client) {
+            MongoDatabase admin = client.getDatabase("admin");
+            Document member = new Document("_id", 0).append("host", "localhost:" + client.getAddress().getPort());
+            try {
+                admin.runCommand(new Document("replSetInitiate",
+                    new Document("_id", replicaSetName).append("members", Collections.singletonList(member))));
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() != ALREADY_INITIALIZED) {
+                    throw e;
+                }
+            }
+            long deadline = System.currentTimeMillis() + 30000;
+            while (!Boolean.TRUE.equals(admin.runCommand(new Document("isMaster", 1)).getBoolean("ismaster"))) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new BeanInitializationException("The embedded MongoDB was not elected primary of replica set " + replicaSetName);
+                }
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BeanInitializationException("Interrupted while initiating replica set " + replicaSetName, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.mycompany.myapp.config;
+
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the {@link MongoCommandMetrics}.
+ */
+public class MongoCommandMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MongoCommandMetrics metrics;
+
+    private ConnectionDescription connection;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new MongoCommandMetrics(meterRegistry, 200);
+        connection = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress("localhost", 27017)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MongoCommandMetrics.restoreCaller(null);
+    }
+
+    @Test
+    public void testFindIsTimedAndTaggedWithTheCaller() {
+        String previous = MongoCommandMetrics.registerCaller("BookRepository.findAll");
+        metrics.commandStarted(new CommandStartedEvent(1, connection, "db", "find", new BsonDocument("find", new BsonString("book"))));
+        MongoCommandMetrics.restoreCaller(previous);
+        BsonDocument cursor = new BsonDocument("id", new BsonInt64(0))
+            .append("firstBatch", new BsonArray())
+            .append("ns", new BsonString("db.book"));
+        cursor.getArray("firstBatch").add(new BsonDocument("_id", new BsonString("a")));
+        cursor.getArray("firstBatch").add(new BsonDocument("_id", new BsonString("b")));
+        metrics.commandSucceeded(new CommandSucceededEvent(1, connection, "find", new BsonDocument("cursor", cursor),
+            TimeUnit.MILLISECONDS.toNanos(3)));
+
+        Timer timer = meterRegistry.get(MongoCommandMetrics.COMMANDS_METRIC)
+            .tag("command", "find").tag("collection", "book").tag("method", "BookRepository.findAll").tag("outcome", "success")
+            .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(3);
+        assertThat(meterRegistry.get(MongoCommandMetrics.DOCUMENTS_METRIC).tag("collection", "book").summary().totalAmount())
+            .isEqualTo(2);
+    }
+
+    @Test
+    public void testWrittenDocumentsAreCounted() {
+        metrics.commandStarted(new CommandStartedEvent(2, connection, "db", "update", new BsonDocument("update", new BsonString("author"))));
+        metrics.commandSucceeded(new CommandSucceededEvent(2, connection, "update", new BsonDocument("n", new BsonInt32(5)), 1000));
+
+        assertThat(meterRegistry.get(MongoCommandMetrics.DOCUMENTS_METRIC).tag("command", "update").tag("method", "none")
+            .summary().totalAmount()).isEqualTo(5);
+    }
+
+    @Test
+    public void testGetMoreIsTaggedWithItsCollection() {
+        metrics.commandStarted(new CommandStartedEvent(3, connection, "db", "getMore",
+            new BsonDocument("getMore", new BsonInt64(42)).append("collection", new BsonString("book"))));
+        metrics.commandFailed(new CommandFailedEvent(3, connection, "getMore", 1000, new MongoException("cursor not found")));
+
+        assertThat(meterRegistry.get(MongoCommandMetrics.COMMANDS_METRIC)
+            .tag("command", "getMore").tag("collection", "book").tag("outcome", "failure").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find(MongoCommandMetrics.DOCUMENTS_METRIC).summary()).isNull();
+    }
+
+    @Test
+    public void testChangeStreamGetMoreIsNotTimed() {
+        metrics.commandStarted(new CommandStartedEvent(4, connection, "db", "getMore",
+            new BsonDocument("getMore", new BsonInt64(42)).append("collection", new BsonString("book")).append("maxTimeMS", new BsonInt64(1000))));
+        metrics.commandSucceeded(new CommandSucceededEvent(4, connection, "getMore", new BsonDocument(), TimeUnit.MILLISECONDS.toNanos(1000)));
+
+        assertThat(meterRegistry.find(MongoCommandMetrics.COMMANDS_METRIC).timer()).isNull();
+    }
+}
@@ -0,0 +1,66 @@
+package com.mycompany.myapp.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the {@link MongoConnectionPoolMetrics}.
+ */
+public class MongoConnectionPoolMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MongoConnectionPoolMetrics metrics;
+
+    private ServerId serverId;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new MongoConnectionPoolMetrics(meterRegistry);
+        serverId = new ServerId(new ClusterId(), new ServerAddress("localhost", 27017));
+        metrics.connectionPoolOpened(new ConnectionPoolOpenedEvent(serverId, ConnectionPoolSettings.builder().build()));
+    }
+
+    @Test
+    public void testGaugesFollowThePool() {
+        ConnectionId first = new ConnectionId(serverId);
+        ConnectionId second = new ConnectionId(serverId);
+        metrics.connectionAdded(new ConnectionAddedEvent(first));
+        metrics.connectionAdded(new ConnectionAddedEvent(second));
+        metrics.connectionCheckedOut(new ConnectionCheckedOutEvent(first));
+        metrics.waitQueueEntered(new ConnectionPoolWaitQueueEnteredEvent(serverId));
+
+        assertThat(gauge("mongodb.driver.pool.size")).isEqualTo(2);
+        assertThat(gauge("mongodb.driver.pool.checkedout")).isEqualTo(1);
+        assertThat(gauge("mongodb.driver.pool.waitqueuesize")).isEqualTo(1);
+
+        metrics.waitQueueExited(new ConnectionPoolWaitQueueExitedEvent(serverId));
+        metrics.connectionCheckedIn(new ConnectionCheckedInEvent(first));
+        metrics.connectionRemoved(new ConnectionRemovedEvent(second));
+
+        assertThat(gauge("mongodb.driver.pool.size")).isEqualTo(1);
+        assertThat(gauge("mongodb.driver.pool.checkedout")).isEqualTo(0);
+        assertThat(gauge("mongodb.driver.pool.waitqueuesize")).isEqualTo(0);
+    }
+
+    @Test
+    public void testGaugesAreRemovedWhenThePoolIsClosed() {
+        metrics.connectionPoolClosed(new ConnectionPoolClosedEvent(serverId));
+
+        assertThat(meterRegistry.find("mongodb.driver.pool.size").gauge()).isNull();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("server.address", "localhost:27017").gauge().value();
+    }
+}
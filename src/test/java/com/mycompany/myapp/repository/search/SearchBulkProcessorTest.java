@@ -0,0 +1,101 @@
+package com.mycompany.myapp.repository.search;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.config.ElasticsearchConfiguration;
+import com.mycompany.myapp.domain.search.BookDocument;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.searchbox.client.JestClient;
+import io.searchbox.core.Bulk;
+import io.searchbox.core.BulkResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link SearchBulkProcessor}.
+ */
+public class SearchBulkProcessorTest {
+
+    private JestClient jestClient;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SearchBulkProcessor searchBulkProcessor;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        jestClient = mock(JestClient.class);
+        when(jestClient.execute(any(Bulk.class))).thenAnswer(invocation -> createBulkResult());
+        ElasticsearchOperations elasticsearchOperations = mock(ElasticsearchOperations.class);
+        SimpleElasticsearchMappingContext mappingContext = new SimpleElasticsearchMappingContext();
+        doReturn(mappingContext.getRequiredPersistentEntity(BookDocument.class)).when(elasticsearchOperations).getPersistentEntityFor(BookDocument.class);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getElasticsearch().getBulk().setActions(2);
+        meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        searchBulkProcessor = new SearchBulkProcessor(jestClient, new ElasticsearchConfiguration(objectMapper).getEntityMapper(),
+            elasticsearchOperations, meterRegistry, applicationProperties);
+    }
+
+    @Test
+    public void testActionsAreSentInBulkOnceTheBufferIsFull() throws Exception {
+        BookDocument first = new BookDocument();
+        first.setTitle("AAAAAAAAAA");
+        searchBulkProcessor.index(first);
+        verify(jestClient, never()).execute(any(Bulk.class));
+
+        BookDocument second = new BookDocument();
+        second.setId("book-2");
+        second.setTitle("BBBBBBBBBB");
+        searchBulkProcessor.index(second);
+
+        ArgumentCaptor<Bulk> bulk = ArgumentCaptor.forClass(Bulk.class);
+        verify(jestClient, times(1)).execute(bulk.capture());
+        String data = bulk.getValue().getData(new Gson());
+        assertThat(data).contains("AAAAAAAAAA").contains("BBBBBBBBBB").contains("\"_id\":\"book-2\"");
+        assertThat(meterRegistry.get(SearchBulkProcessor.BULK_SIZE_METRIC).summary().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFlushSendsTheBufferedActions() throws Exception {
+        searchBulkProcessor.delete(BookDocument.class, "book-1");
+        searchBulkProcessor.flush();
+        searchBulkProcessor.flush();
+
+        ArgumentCaptor<Bulk> bulk = ArgumentCaptor.forClass(Bulk.class);
+        verify(jestClient, times(1)).execute(bulk.capture());
+        assertThat(bulk.getValue().getData(new Gson())).contains("delete").contains("book-1");
+    }
+
+    @Test
+    public void testUpdateOnlySendsTheGivenFields() throws Exception {
+        searchBulkProcessor.update(BookDocument.class, "book-1", Collections.singletonMap("authorName", "Jane"));
+        searchBulkProcessor.flush();
+
+        ArgumentCaptor<Bulk> bulk = ArgumentCaptor.forClass(Bulk.class);
+        verify(jestClient, times(1)).execute(bulk.capture());
+        assertThat(bulk.getValue().getData(new Gson())).contains("\"update\"").contains("{\"doc\":{\"authorName\":\"Jane\"}}");
+    }
+
+    private static BulkResult createBulkResult() {
+        String response = "{\"took\":1,\"errors\":false,\"items\":[]}";
+        BulkResult result = new BulkResult(new Gson());
+        result.setJsonString(response);
+        result.setJsonObject(new JsonParser().parse(response).getAsJsonObject());
+        result.setSucceeded(true);
+        return result;
+    }
+}
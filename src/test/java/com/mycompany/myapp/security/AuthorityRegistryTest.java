@@ -0,0 +1,71 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.repository.AuthorityRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link AuthorityRegistry}.
+ */
+public class AuthorityRegistryTest {
+
+    private AuthorityRepository authorityRepository;
+
+    private AuthorityRegistry authorityRegistry;
+
+    @BeforeEach
+    public void setup() {
+        authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll()).thenReturn(Arrays.asList(authority(AuthoritiesConstants.ADMIN), authority(AuthoritiesConstants.USER)));
+        authorityRegistry = new AuthorityRegistry(authorityRepository);
+    }
+
+    @Test
+    public void testAuthoritiesAreLoadedOnce() {
+        assertThat(authorityRegistry.find(AuthoritiesConstants.USER)).contains(authority(AuthoritiesConstants.USER));
+        assertThat(authorityRegistry.find("ROLE_UNKNOWN")).isEmpty();
+        assertThat(authorityRegistry.getAuthorityNames()).containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+
+        verify(authorityRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void testGrantedAuthoritiesAreSharedByUsersWithTheSameAuthorities() {
+        Set<Authority> first = new HashSet<>(Arrays.asList(authority(AuthoritiesConstants.ADMIN), authority(AuthoritiesConstants.USER)));
+        Set<Authority> second = new HashSet<>(Arrays.asList(authority(AuthoritiesConstants.USER), authority(AuthoritiesConstants.ADMIN)));
+
+        List<GrantedAuthority> grantedAuthorities = authorityRegistry.getGrantedAuthorities(first);
+        first.clear();
+
+        assertThat(grantedAuthorities).extracting(GrantedAuthority::getAuthority)
+            .containsExactlyInAnyOrder(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(authorityRegistry.getGrantedAuthorities(second)).isSameAs(grantedAuthorities);
+    }
+
+    @Test
+    public void testRefreshReplacesTheAuthorities() {
+        authorityRegistry.refresh();
+        when(authorityRepository.findAll()).thenReturn(Arrays.asList(authority(AuthoritiesConstants.ADMIN), authority(AuthoritiesConstants.USER),
+            authority("ROLE_EDITOR")));
+        authorityRegistry.refresh();
+
+        assertThat(authorityRegistry.find("ROLE_EDITOR")).isPresent();
+    }
+
+    private static Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
+    }
+}
@@ -0,0 +1,81 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.JhipsterStarterApp;
+import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.AuthorRepository;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.web.rest.AuthorResourceIT;
+import com.mycompany.myapp.web.rest.BookResourceIT;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link BookAuthorNameUpdater}.
+ */
+@SpringBootTest(classes = JhipsterStarterApp.class)
+public class BookAuthorNameUpdaterIT {
+
+    @Autowired
+    private BookAuthorNameUpdater bookAuthorNameUpdater;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    private Author author;
+
+    @BeforeEach
+    public void init() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        author = authorRepository.save(AuthorResourceIT.createEntity());
+    }
+
+    @Test
+    public void testUpdateAuthorNameUpdatesAllTheBooksOfTheAuthor() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BookAuthorNameUpdater.BATCH_SIZE + 1; i++) {
+            books.add(BookResourceIT.createEntity().name(author).authorName(author.getName()));
+        }
+        bookRepository.saveAll(books);
+        Book otherBook = bookRepository.save(BookResourceIT.createEntity().authorName(author.getName()));
+
+        long updated = bookAuthorNameUpdater.updateAuthorName(author.getId(), "Renamed");
+
+        assertThat(updated).isEqualTo(BookAuthorNameUpdater.BATCH_SIZE + 1);
+        assertThat(bookRepository.findAll())
+            .filteredOn(book -> !book.getId().equals(otherBook.getId()))
+            .extracting(Book::getAuthorName)
+            .containsOnly("Renamed");
+        assertThat(bookRepository.findById(otherBook.getId()).get().getAuthorName()).isEqualTo(author.getName());
+    }
+
+    @Test
+    public void testUpdateAuthorNameSkipsUpToDateBooks() {
+        bookRepository.save(BookResourceIT.createEntity().name(author).authorName(author.getName()));
+
+        assertThat(bookAuthorNameUpdater.updateAuthorName(author.getId(), author.getName())).isZero();
+    }
+
+    @Test
+    public void testFillAuthorNameReadsTheNameOfTheAuthor() {
+        Author reference = new Author();
+        reference.setId(author.getId());
+        Book book = BookResourceIT.createEntity().name(reference).authorName("Outdated");
+
+        bookAuthorNameUpdater.fillAuthorName(book);
+
+        assertThat(book.getAuthorName()).isEqualTo(author.getName());
+    }
+}
@@ -0,0 +1,71 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.JhipsterStarterApp;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link BookPriceMigration}.
+ */
+@SpringBootTest(classes = JhipsterStarterApp.class)
+public class BookPriceMigrationIT {
+
+    @Autowired
+    private BookPriceMigration bookPriceMigration;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private String collection;
+
+    @BeforeEach
+    public void init() {
+        bookRepository.deleteAll();
+        mongoTemplate.dropCollection(SchedulerLock.COLLECTION);
+        collection = mongoTemplate.getCollectionName(Book.class);
+    }
+
+    @Test
+    public void testPricesAreWrittenAsDecimal128() {
+        Book book = bookRepository.save(new Book().title("AAAAAAAAAA").price(new BigDecimal("12.50")));
+
+        Document stored = mongoTemplate.findById(book.getId(), Document.class, collection);
+        assertThat(stored.get("price")).isEqualTo(new Decimal128(new BigDecimal("12.50")));
+        assertThat(bookRepository.findById(book.getId()).get().getPrice()).isEqualTo(new BigDecimal("12.50"));
+    }
+
+    @Test
+    public void testStringPricesAreConverted() {
+        mongoTemplate.insert(new Document("title", "AAAAAAAAAA").append("price", "9.00"), collection);
+        mongoTemplate.insert(new Document("title", "BBBBBBBBBB").append("price", "10.00"), collection);
+        mongoTemplate.insert(new Document("title", "CCCCCCCCCC").append("price", "not a price"), collection);
+        bookRepository.save(new Book().title("DDDDDDDDDD").price(new BigDecimal("100")));
+
+        assertThat(bookPriceMigration.migrate()).isEqualTo(2);
+        assertThat(bookPriceMigration.migrate()).isZero();
+
+        Query range = new Query(Criteria.where("price").gte(new BigDecimal("5")).lt(new BigDecimal("50")))
+            .with(Sort.by(Sort.Direction.DESC, "price"));
+        assertThat(mongoTemplate.find(range, Book.class)).extracting(Book::getTitle).containsExactly("BBBBBBBBBB", "AAAAAAAAAA");
+        assertThat(mongoTemplate.findOne(new Query(Criteria.where("title").is("CCCCCCCCCC")), Document.class, collection).get("price"))
+            .isEqualTo("not a price");
+    }
+}
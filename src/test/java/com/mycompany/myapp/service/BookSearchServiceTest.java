@@ -0,0 +1,103 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ElasticsearchConfiguration;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.search.SearchClient;
+import com.mycompany.myapp.service.dto.BookFacetedPage;
+import com.mycompany.myapp.service.mapper.SearchDocumentMapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import io.searchbox.client.JestClient;
+import io.searchbox.core.Search;
+import io.searchbox.core.SearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link BookSearchService}.
+ */
+public class BookSearchServiceTest {
+
+    private static final String SEARCH_RESPONSE = "{" +
+        "\"hits\":{\"total\":42,\"hits\":[{\"_index\":\"book\",\"_id\":\"book-1\",\"_source\":" +
+        "{\"id\":\"book-1\",\"title\":\"AAAAAAAAAA\",\"publicationDate\":\"1999-06-01\",\"price\":12.5}}]}," +
+        "\"aggregations\":{" +
+        "\"price_bands\":{\"buckets\":[{\"key\":0.0,\"doc_count\":30},{\"key\":10.0,\"doc_count\":12}]}," +
+        "\"publication_years\":{\"buckets\":[{\"key_as_string\":\"1999\",\"key\":915148800000,\"doc_count\":42}]}," +
+        "\"top_authors\":{\"buckets\":[{\"key\":\"Jane\",\"doc_count\":40},{\"key\":\"John\",\"doc_count\":2}]}}}";
+
+    private JestClient jestClient;
+
+    private BookSearchService bookSearchService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        jestClient = mock(JestClient.class);
+        when(jestClient.execute(any(Search.class))).thenAnswer(invocation -> createSearchResult());
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        SearchClient searchClient = new SearchClient(jestClient, new ElasticsearchConfiguration(objectMapper).getEntityMapper(), new SimpleMeterRegistry());
+        bookSearchService = new BookSearchService(searchClient, new ConcurrentMapCacheManager(BookSearchService.BOOK_FACETS_CACHE),
+            new SearchDocumentMapper());
+    }
+
+    @Test
+    public void testSearchReturnsHitsAndFacetsInOneRequest() throws Exception {
+        BookFacetedPage page = bookSearchService.searchWithFacets("title:A*", PageRequest.of(0, 20));
+
+        verify(jestClient, times(1)).execute(any(Search.class));
+        assertThat(page.getTotalElements()).isEqualTo(42);
+        assertThat(page.getContent()).extracting(Book::getId).containsExactly("book-1");
+        assertThat(page.getContent().get(0).getPublicationDate()).isEqualTo(LocalDate.of(1999, 6, 1));
+        assertThat(page.getContent().get(0).getPrice()).isEqualByComparingTo(new BigDecimal("12.5"));
+        assertThat(page.getFacets().getPriceBands()).extracting("key").containsExactly("0", "10");
+        assertThat(page.getFacets().getPriceBands()).extracting("count").containsExactly(30L, 12L);
+        assertThat(page.getFacets().getPublicationYears()).extracting("key").containsExactly("1999");
+        assertThat(page.getFacets().getTopAuthors()).extracting("key").containsExactly("Jane", "John");
+    }
+
+    @Test
+    public void testFacetsAreOnlyAggregatedOncePerQuery() throws Exception {
+        bookSearchService.searchWithFacets("title:A*", PageRequest.of(0, 20));
+        BookFacetedPage secondPage = bookSearchService.searchWithFacets("title:A*", PageRequest.of(1, 20));
+
+        ArgumentCaptor<Search> searches = ArgumentCaptor.forClass(Search.class);
+        verify(jestClient, times(2)).execute(searches.capture());
+        assertThat(searches.getAllValues().get(0).getData(new Gson())).contains("aggregations");
+        assertThat(searches.getAllValues().get(1).getData(new Gson())).doesNotContain("aggregations");
+        assertThat(secondPage.getFacets().getTopAuthors()).hasSize(2);
+    }
+
+    @Test
+    public void testFacetsAreAggregatedAgainAfterClearingTheCache() throws Exception {
+        bookSearchService.searchWithFacets("title:A*", PageRequest.of(0, 20));
+        bookSearchService.clearFacetsCache();
+        bookSearchService.searchWithFacets("title:A*", PageRequest.of(0, 20));
+
+        ArgumentCaptor<Search> searches = ArgumentCaptor.forClass(Search.class);
+        verify(jestClient, times(2)).execute(searches.capture());
+        assertThat(searches.getAllValues().get(1).getData(new Gson())).contains("aggregations");
+    }
+
+    private static SearchResult createSearchResult() {
+        SearchResult result = new SearchResult(new Gson());
+        result.setJsonString(SEARCH_RESPONSE);
+        result.setJsonObject(new JsonParser().parse(SEARCH_RESPONSE).getAsJsonObject());
+        result.setPathToResult("hits/hits/_source");
+        result.setSucceeded(true);
+        return result;
+    }
+}
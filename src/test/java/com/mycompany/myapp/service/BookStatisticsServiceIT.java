@@ -0,0 +1,138 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.JhipsterStarterApp;
+import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.AuthorRepository;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.service.dto.BookStatisticsDTO;
+import com.mycompany.myapp.service.dto.StatisticsBucketDTO;
+import com.mycompany.myapp.web.rest.AuthorResourceIT;
+import com.mycompany.myapp.web.rest.BookResourceIT;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link BookStatisticsService}.
+ */
+@SpringBootTest(classes = JhipsterStarterApp.class)
+public class BookStatisticsServiceIT {
+
+    @Autowired
+    private BookStatisticsService bookStatisticsService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private Author author;
+
+    @BeforeEach
+    public void init() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        mongoTemplate.dropCollection(BookStatisticsService.COLLECTION);
+        mongoTemplate.dropCollection(BookStatisticsService.AUTHOR_COLLECTION);
+        mongoTemplate.dropCollection(BookStatisticsService.YEAR_COLLECTION);
+        mongoTemplate.dropCollection(SchedulerLock.COLLECTION);
+        author = authorRepository.save(AuthorResourceIT.createEntity());
+    }
+
+    @Test
+    public void testRebuildStatistics() {
+        bookRepository.save(createBook(1813, "10"));
+        bookRepository.save(createBook(1813, "20"));
+        bookRepository.save(createBook(1815, "30"));
+
+        bookStatisticsService.rebuildStatistics();
+        BookStatisticsDTO statistics = bookStatisticsService.getStatistics();
+
+        assertThat(statistics.getBookCount()).isEqualTo(3);
+        assertThat(statistics.getAuthors()).hasSize(1);
+        assertBucket(statistics.getAuthors().get(0), author.getId(), 3, "20.00");
+        assertThat(statistics.getPublicationYears()).hasSize(2);
+        assertBucket(statistics.getPublicationYears().get(0), "1813", 2, "15.00");
+        assertBucket(statistics.getPublicationYears().get(1), "1815", 1, "30.00");
+        assertThat(statistics.getMinPrice()).isEqualByComparingTo("10");
+        assertThat(statistics.getMaxPrice()).isEqualByComparingTo("30");
+        assertThat(statistics.getPricePercentiles()).containsOnlyKeys("p50", "p90", "p99");
+        assertThat(statistics.getPricesRefreshedAt()).isNotNull();
+    }
+
+    @Test
+    public void testIncrementalUpdatesMatchARebuild() {
+        Book book = bookRepository.save(createBook(1813, "10"));
+        bookStatisticsService.updateContribution(null, book);
+        Book other = bookRepository.save(createBook(1815, "30"));
+        bookStatisticsService.updateContribution(null, other);
+
+        BookStatisticsService.Contribution previous = bookStatisticsService.findContribution(book.getId());
+        assertThat(previous).isEqualTo(BookStatisticsService.Contribution.of(book));
+        book.setPublicationDate(LocalDate.of(1815, 6, 1));
+        book.setPrice(new BigDecimal("20"));
+        bookRepository.save(book);
+        bookStatisticsService.updateContribution(previous, book);
+
+        previous = bookStatisticsService.findContribution(other.getId());
+        bookRepository.deleteById(other.getId());
+        bookStatisticsService.updateContribution(previous, null);
+
+        BookStatisticsDTO statistics = bookStatisticsService.getStatistics();
+        assertThat(statistics.getBookCount()).isEqualTo(1);
+        assertBucket(statistics.getAuthors().get(0), author.getId(), 1, "20.00");
+        assertThat(statistics.getPublicationYears()).hasSize(1);
+        assertBucket(statistics.getPublicationYears().get(0), "1815", 1, "20.00");
+
+        bookStatisticsService.refreshPriceDistribution();
+        assertThat(bookStatisticsService.getStatistics().getMaxPrice()).isEqualByComparingTo("20");
+
+        bookStatisticsService.rebuildStatistics();
+        BookStatisticsDTO rebuilt = bookStatisticsService.getStatistics();
+        assertThat(rebuilt.getAuthors()).usingFieldByFieldElementComparator().isEqualTo(statistics.getAuthors());
+        assertThat(rebuilt.getPublicationYears()).usingFieldByFieldElementComparator().isEqualTo(statistics.getPublicationYears());
+    }
+
+    @Test
+    public void testOnlyTheTopAuthorsAreRead() {
+        for (int i = 1; i <= BookStatisticsService.TOP_AUTHORS + 1; i++) {
+            mongoTemplate.insert(new Document("_id", "author" + i).append("count", i).append("priceTotal", new Decimal128(BigDecimal.valueOf(i))),
+                BookStatisticsService.AUTHOR_COLLECTION);
+        }
+
+        List<StatisticsBucketDTO> authors = bookStatisticsService.getStatistics().getAuthors();
+
+        assertThat(authors).hasSize(BookStatisticsService.TOP_AUTHORS);
+        assertBucket(authors.get(0), "author" + (BookStatisticsService.TOP_AUTHORS + 1), BookStatisticsService.TOP_AUTHORS + 1, "1.00");
+        assertBucket(authors.get(authors.size() - 1), "author2", 2, "1.00");
+    }
+
+    private Book createBook(int year, String price) {
+        return BookResourceIT.createEntity()
+            .publicationDate(LocalDate.of(year, 1, 28))
+            .price(new BigDecimal(price))
+            .name(author);
+    }
+
+    private static void assertBucket(StatisticsBucketDTO bucket, String key, long count, String averagePrice) {
+        assertThat(bucket.getKey()).isEqualTo(key);
+        assertThat(bucket.getCount()).isEqualTo(count);
+        assertThat(bucket.getAveragePrice()).isEqualByComparingTo(averagePrice);
+    }
+}
@@ -0,0 +1,86 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.JhipsterStarterApp;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.AuthorRepository;
+import com.mycompany.myapp.repository.BookRepository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link CatalogDataGenerator}.
+ */
+@SpringBootTest(classes = JhipsterStarterApp.class)
+public class CatalogDataGeneratorIT {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private BookStatisticsService bookStatisticsService;
+
+    private CatalogDataGenerator catalogDataGenerator;
+
+    @BeforeEach
+    public void init() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        // Not the bean, so that the generation runs synchronously
+        catalogDataGenerator = new CatalogDataGenerator(mongoTemplate, searchIndexer, bookStatisticsService);
+    }
+
+    @Test
+    public void testGenerateSkewedCatalog() {
+        catalogDataGenerator.generate(50, 2500, 7, 2, false);
+
+        assertThat(authorRepository.count()).isEqualTo(50);
+        assertThat(bookRepository.count()).isEqualTo(2500);
+        Map<Object, Long> booksByAuthor = new HashMap<>();
+        for (Document book : mongoTemplate.findAll(Document.class, mongoTemplate.getCollectionName(Book.class))) {
+            booksByAuthor.merge(BookRepository.toAuthorId(book.get("name")), 1L, Long::sum);
+            assertThat(book.getString("author_name")).isNotEmpty();
+            assertThat(book.getBoolean(CatalogDataGenerator.GENERATED_FIELD)).isTrue();
+        }
+        List<Long> counts = booksByAuthor.values().stream().sorted().collect(Collectors.toList());
+        // The most prolific author wrote many more books than the median one
+        assertThat(counts.get(counts.size() - 1)).isGreaterThan(5 * counts.get(counts.size() / 2));
+        assertThat(bookStatisticsService.getStatistics().getBookCount()).isEqualTo(2500);
+    }
+
+    @Test
+    public void testSameSeedGeneratesSameCatalog() {
+        catalogDataGenerator.generate(10, 100, 7, 2, false);
+        List<Book> first = bookRepository.findAll(Sort.by("id"));
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+
+        catalogDataGenerator.generate(10, 100, 7, 4, false);
+        List<Book> second = bookRepository.findAll(Sort.by("id"));
+
+        assertThat(second).extracting(Book::getId).isEqualTo(first.stream().map(Book::getId).collect(Collectors.toList()));
+        assertThat(second).extracting(Book::getTitle).isEqualTo(first.stream().map(Book::getTitle).collect(Collectors.toList()));
+        assertThat(second).extracting(Book::getPrice).isEqualTo(first.stream().map(Book::getPrice).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,101 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.JhipsterStarterApp;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.web.rest.BookResourceIT;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link ChangeStreamConsumer}, on the embedded MongoDB started as a replica set.
+ */
+@SpringBootTest(classes = JhipsterStarterApp.class, properties = "application.change-streams.enabled=true")
+public class ChangeStreamConsumerIT {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private RecordingHandler recordingHandler;
+
+    @BeforeEach
+    public void init() {
+        recordingHandler.changes.clear();
+    }
+
+    @Test
+    public void testChangesMadeOutsideTheResourcesAreDispatched() throws Exception {
+        Book book = bookRepository.save(BookResourceIT.createEntity());
+        mongoTemplate.getCollection("book").deleteOne(new Document("_id", new ObjectId(book.getId())));
+
+        ChangeStreamDocument<Document> insert = recordingHandler.changes.poll(30, TimeUnit.SECONDS);
+        assertThat(insert).isNotNull();
+        assertThat(insert.getOperationType()).isEqualTo(OperationType.INSERT);
+        assertThat(insert.getFullDocument().getString("title")).isEqualTo(book.getTitle());
+        ChangeStreamDocument<Document> delete = recordingHandler.changes.poll(30, TimeUnit.SECONDS);
+        assertThat(delete).isNotNull();
+        assertThat(delete.getOperationType()).isEqualTo(OperationType.DELETE);
+        assertThat(ChangeStreamHandler.latestStates(Arrays.asList(insert, delete))).containsEntry(book.getId(), null);
+
+        // The resume token is stored once the batch is handled
+        long deadline = System.currentTimeMillis() + 5000;
+        while (mongoTemplate.getCollection(ChangeStreamConsumer.TOKEN_COLLECTION).countDocuments() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(mongoTemplate.getCollection(ChangeStreamConsumer.TOKEN_COLLECTION).countDocuments()).isEqualTo(1);
+    }
+
+    @Test
+    public void testChangesAreFollowedUnderALease() {
+        Document lease = mongoTemplate.getCollection(SchedulerLock.COLLECTION).find(new Document("_id", "changeStreamConsumer")).first();
+
+        assertThat(lease).isNotNull();
+        assertThat(lease.getDate("lockUntil")).isInTheFuture();
+    }
+
+    @TestConfiguration
+    static class RecordingHandlerConfiguration {
+
+        @Bean
+        public RecordingHandler recordingHandler() {
+            return new RecordingHandler();
+        }
+    }
+
+    static class RecordingHandler implements ChangeStreamHandler {
+
+        private final BlockingQueue<ChangeStreamDocument<Document>> changes = new LinkedBlockingQueue<>();
+
+        @Override
+        public String getCollection() {
+            return "book";
+        }
+
+        @Override
+        public void handle(List<ChangeStreamDocument<Document>> changes) {
+            this.changes.addAll(changes);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ElasticsearchConfiguration;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.repository.search.SearchClient;
+import com.mycompany.myapp.service.dto.CursorPage;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import io.searchbox.client.JestClient;
+import io.searchbox.core.Search;
+import io.searchbox.core.SearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link SearchCursorService}.
+ */
+public class SearchCursorServiceTest {
+
+    private static final String SEARCH_RESPONSE = "{" +
+        "\"hits\":{\"total\":20000,\"hits\":[" +
+        "{\"_index\":\"book\",\"_id\":\"book-1\",\"_source\":{\"id\":\"book-1\",\"title\":\"AAAAAAAAAA\"},\"sort\":[1.5,\"book-1\"]}," +
+        "{\"_index\":\"book\",\"_id\":\"book-2\",\"_source\":{\"id\":\"book-2\",\"title\":\"BBBBBBBBBB\"},\"sort\":[1.25,\"book-2\"]}]}}";
+
+    private JestClient jestClient;
+
+    private SearchCursorService searchCursorService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        jestClient = mock(JestClient.class);
+        when(jestClient.execute(any(Search.class))).thenAnswer(invocation -> createSearchResult());
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        SearchClient searchClient = new SearchClient(jestClient, new ElasticsearchConfiguration(objectMapper).getEntityMapper(), new SimpleMeterRegistry());
+        searchCursorService = new SearchCursorService(searchClient);
+    }
+
+    @Test
+    public void testFullPageHasNextCursor() {
+        CursorPage<Book> page = searchCursorService.search("book", Book.class, queryStringQuery("*"), null, 2);
+
+        assertThat(page.getContent()).extracting(Book::getId).containsExactly("book-1", "book-2");
+        assertThat(page.getNextCursor()).isNotNull();
+    }
+
+    @Test
+    public void testLastPageHasNoNextCursor() {
+        CursorPage<Book> page = searchCursorService.search("book", Book.class, queryStringQuery("*"), null, 3);
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void testNextPageSearchesAfterTheLastHit() throws Exception {
+        String cursor = searchCursorService.search("book", Book.class, queryStringQuery("*"), null, 2).getNextCursor();
+        searchCursorService.search("book", Book.class, queryStringQuery("*"), cursor, 2);
+
+        ArgumentCaptor<Search> searches = ArgumentCaptor.forClass(Search.class);
+        verify(jestClient, times(2)).execute(searches.capture());
+        String firstSearch = searches.getAllValues().get(0).getData(new Gson()).toString();
+        String nextSearch = searches.getAllValues().get(1).getData(new Gson()).toString().replace(" ", "").replace("\n", "");
+        assertThat(firstSearch).doesNotContain("search_after").doesNotContain("\"from\"");
+        assertThat(nextSearch).contains("\"search_after\":[1.25,\"book-2\"]");
+    }
+
+    @Test
+    public void testInvalidCursorIsRejected() {
+        assertThatThrownBy(() -> searchCursorService.search("book", Book.class, queryStringQuery("*"), "not a cursor", 2))
+            .isInstanceOf(BadRequestAlertException.class);
+    }
+
+    @Test
+    public void testExportWritesNewlineDelimitedSources() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        searchCursorService.export("book", queryStringQuery("*"), out);
+
+        verify(jestClient, times(1)).execute(any(Search.class));
+        assertThat(out.toString(StandardCharsets.UTF_8.name()).split("\n"))
+            .containsExactly("{\"id\":\"book-1\",\"title\":\"AAAAAAAAAA\"}", "{\"id\":\"book-2\",\"title\":\"BBBBBBBBBB\"}");
+    }
+
+    @Test
+    public void testExportOnlyFetchesTheGivenFields() throws Exception {
+        searchCursorService.export("book", queryStringQuery("*"), new String[] {"title"}, new ByteArrayOutputStream());
+
+        ArgumentCaptor<Search> search = ArgumentCaptor.forClass(Search.class);
+        verify(jestClient, times(1)).execute(search.capture());
+        String data = search.getValue().getData(new Gson()).toString().replace(" ", "").replace("\n", "");
+        assertThat(data).contains("\"_source\":{\"includes\":[\"title\",\"id\"]");
+    }
+
+    private static SearchResult createSearchResult() {
+        SearchResult result = new SearchResult(new Gson());
+        result.setJsonString(SEARCH_RESPONSE);
+        result.setJsonObject(new JsonParser().parse(SEARCH_RESPONSE).getAsJsonObject());
+        result.setPathToResult("hits/hits/_source");
+        result.setSucceeded(true);
+        return result;
+    }
+}
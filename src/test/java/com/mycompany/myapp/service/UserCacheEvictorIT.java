@@ -0,0 +1,63 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.JhipsterStarterApp;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.web.rest.UserResourceIT;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link UserCacheEvictor}, on the embedded MongoDB started as a replica set.
+ */
+@SpringBootTest(classes = JhipsterStarterApp.class, properties = "application.change-streams.enabled=true")
+public class UserCacheEvictorIT {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private User user;
+
+    @BeforeEach
+    public void init() {
+        userRepository.deleteAll();
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+        user = userRepository.save(UserResourceIT.createEntity());
+    }
+
+    @Test
+    public void testUsersChangedOutsideTheApplicationAreEvictedByTheirPreviousKeys() throws Exception {
+        Cache usersByLogin = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        userRepository.findOneByLogin(user.getLogin());
+        userRepository.findOneByLogin("other");
+        assertThat(usersByLogin.get(user.getLogin())).isNotNull();
+
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(user.getId())), Update.update("login", "renamed"), User.class);
+
+        long deadline = System.currentTimeMillis() + 30000;
+        while (usersByLogin.get(user.getLogin()) != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(usersByLogin.get(user.getLogin())).isNull();
+        // The entries of the other users are kept
+        assertThat(usersByLogin.get("other")).isNotNull();
+    }
+}
@@ -3,25 +3,31 @@ package com.mycompany.myapp.service;
 import com.mycompany.myapp.JhipsterStarterApp;
 import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.User;
-import com.mycompany.myapp.repository.search.UserSearchRepository;
+import com.mycompany.myapp.repository.search.SearchBulkProcessor;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.service.dto.UserDTO;
 import com.mycompany.myapp.service.util.RandomUtil;
+import com.mycompany.myapp.web.rest.errors.EmailAlreadyUsedException;
+import com.mycompany.myapp.web.rest.errors.LoginAlreadyUsedException;
 
 import org.apache.commons.lang3.RandomStringUtils;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.util.Date;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -49,19 +55,18 @@ public class UserServiceIT {
     @Autowired
     private UserService userService;
 
-    /**
-     * This repository is mocked in the com.mycompany.myapp.repository.search test package.
-     *
-     * @see com.mycompany.myapp.repository.search.UserSearchRepositoryMockConfiguration
-     */
+    @SpyBean
+    private SearchBulkProcessor searchBulkProcessor;
+
     @Autowired
-    private UserSearchRepository mockUserSearchRepository;
+    private MongoTemplate mongoTemplate;
 
     private User user;
 
     @BeforeEach
     public void init() {
         userRepository.deleteAll();
+        mongoTemplate.dropCollection(SchedulerLock.COLLECTION);
         user = new User();
         user.setLogin(DEFAULT_LOGIN);
         user.setPassword(RandomStringUtils.random(60));
@@ -149,14 +154,11 @@ public class UserServiceIT {
         User dbUser = userRepository.save(user);
         dbUser.setCreatedDate(now.minus(4, ChronoUnit.DAYS));
         userRepository.save(user);
-        List<User> users = userRepository.findAllByActivatedIsFalseAndCreatedDateBefore(now.minus(3, ChronoUnit.DAYS));
-        assertThat(users).isNotEmpty();
+        assertThat(userRepository.findById(user.getId())).isPresent();
         userService.removeNotActivatedUsers();
-        users = userRepository.findAllByActivatedIsFalseAndCreatedDateBefore(now.minus(3, ChronoUnit.DAYS));
-        assertThat(users).isEmpty();
+        assertThat(userRepository.findById(user.getId())).isNotPresent();
 
-        // Verify Elasticsearch mock
-        verify(mockUserSearchRepository, times(1)).delete(user);
+        verify(searchBulkProcessor, times(1)).delete(User.class, user.getId());
     }
 
     @Test
@@ -186,8 +188,44 @@ public class UserServiceIT {
         userService.removeNotActivatedUsers();
         assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN)).isNotPresent();
 
-        // Verify Elasticsearch mock
-        verify(mockUserSearchRepository, times(1)).delete(user);
+        verify(searchBulkProcessor, times(1)).delete(User.class, user.getId());
+    }
+
+    @Test
+    public void testRemoveNotActivatedUsersIsSkippedWhileLockedByAnotherInstance() {
+        user.setActivated(false);
+        userRepository.save(user);
+        user.setCreatedDate(Instant.now().minus(30, ChronoUnit.DAYS));
+        userRepository.save(user);
+        mongoTemplate.insert(new Document("_id", "removeNotActivatedUsers")
+            .append("lockUntil", Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
+            .append("lockedBy", "another-instance"), SchedulerLock.COLLECTION);
+
+        userService.removeNotActivatedUsers();
+
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN)).isPresent();
     }
 
+    @Test
+    public void assertThatRegistrationReplacesANotActivatedUser() {
+        user.setActivated(false);
+        userRepository.save(user);
+
+        User registered = userService.registerUser(new UserDTO(user), "password");
+
+        assertThat(registered.getId()).isNotEqualTo(user.getId());
+        assertThat(userRepository.findById(user.getId())).isNotPresent();
+        assertThat(userRepository.findOneByActivationKey(registered.getActivationKey())).isPresent();
+    }
+
+    @Test
+    public void assertThatRegistrationIsRejectedForAnActivatedUser() {
+        userRepository.save(user);
+        UserDTO sameEmail = new UserDTO(user);
+        sameEmail.setLogin("another-login");
+
+        assertThatThrownBy(() -> userService.registerUser(new UserDTO(user), "password")).isInstanceOf(LoginAlreadyUsedException.class);
+        assertThatThrownBy(() -> userService.registerUser(sameEmail, "password")).isInstanceOf(EmailAlreadyUsedException.class);
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
 }
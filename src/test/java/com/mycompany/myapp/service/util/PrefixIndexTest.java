@@ -0,0 +1,69 @@
+package com.mycompany.myapp.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the {@link PrefixIndex} utility class.
+ */
+public class PrefixIndexTest {
+
+    @Test
+    public void testSuggestsByWordPrefixIgnoringCase() {
+        PrefixIndex index = PrefixIndex.builder()
+            .add("Harry Potter", 1)
+            .add("Hamlet", 1)
+            .add("The Pottery Barn", 1)
+            .build();
+
+        assertThat(index.suggest("ha", 10)).containsExactly("Hamlet", "Harry Potter");
+        assertThat(index.suggest("POT", 10)).containsExactly("Harry Potter", "The Pottery Barn");
+        assertThat(index.suggest("harry  pot", 10)).containsExactly("Harry Potter");
+        assertThat(index.suggest("x", 10)).isEmpty();
+        assertThat(index.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    public void testSuggestsHighestWeightsFirst() {
+        PrefixIndex index = PrefixIndex.builder()
+            .add("Agatha Christie", 85)
+            .add("Alan Moore", 12)
+            .add("Albert Camus", 40)
+            .add("Anne Frank", 1)
+            .build();
+
+        assertThat(index.suggest("a", 3)).containsExactly("Agatha Christie", "Albert Camus", "Alan Moore");
+        assertThat(index.suggest("al", 10)).containsExactly("Albert Camus", "Alan Moore");
+    }
+
+    @Test
+    public void testDoesNotSuggestTheSameValueTwice() {
+        PrefixIndex index = PrefixIndex.builder()
+            .add("Tom Thumb", 1)
+            .add("Tom Thumb", 1)
+            .add("Tales", 1)
+            .build();
+
+        assertThat(index.suggest("t", 10)).containsExactly("Tales", "Tom Thumb");
+    }
+
+    @Test
+    public void testServesTopSuggestionsAmongManyMatchingKeys() {
+        PrefixIndex.Builder builder = PrefixIndex.builder();
+        for (int i = 0; i < 100_000; i++) {
+            builder.add("book " + i, i);
+        }
+        PrefixIndex index = builder.build();
+
+        assertThat(index.size()).isEqualTo(200_000);
+        assertThat(index.suggest("book", 3)).containsExactly("book 99999", "book 99998", "book 99997");
+        assertThat(index.suggest("12", 2)).containsExactly("book 12999", "book 12998");
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        assertThat(PrefixIndex.empty().suggest("a", 10)).isEmpty();
+        assertThat(PrefixIndex.empty().size()).isZero();
+    }
+}
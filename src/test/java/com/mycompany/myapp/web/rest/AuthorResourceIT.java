@@ -2,8 +2,17 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.JhipsterStarterApp;
 import com.mycompany.myapp.domain.Author;
+import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.search.AuthorDocument;
 import com.mycompany.myapp.repository.AuthorRepository;
+import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.SortIndexVerifier;
 import com.mycompany.myapp.repository.search.AuthorSearchRepository;
+import com.mycompany.myapp.service.BookQueryService;
+import com.mycompany.myapp.service.ChangeStreamConsumer;
+import com.mycompany.myapp.service.SearchCursorService;
+import com.mycompany.myapp.service.SearchIndexer;
+import com.mycompany.myapp.service.mapper.SearchDocumentMapper;
 import com.mycompany.myapp.web.rest.errors.ExceptionTranslator;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +20,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
@@ -29,6 +39,7 @@ import java.util.List;
 import static com.mycompany.myapp.web.rest.TestUtil.createFormattingConversionService;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -57,6 +68,27 @@ public class AuthorResourceIT {
     @Autowired
     private AuthorSearchRepository mockAuthorSearchRepository;
 
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private SortIndexVerifier sortIndexVerifier;
+
+    @Autowired
+    private BookQueryService bookQueryService;
+
+    @Autowired
+    private SearchCursorService searchCursorService;
+
+    @Autowired
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private SearchDocumentMapper searchDocumentMapper;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -69,6 +101,9 @@ public class AuthorResourceIT {
     @Autowired
     private Validator validator;
 
+    @Autowired
+    private ChangeStreamConsumer changeStreamConsumer;
+
     private MockMvc restAuthorMockMvc;
 
     private Author author;
@@ -76,7 +111,8 @@ public class AuthorResourceIT {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final AuthorResource authorResource = new AuthorResource(authorRepository, mockAuthorSearchRepository);
+        final AuthorResource authorResource = new AuthorResource(authorRepository, mockAuthorSearchRepository, sortIndexVerifier, bookQueryService, searchCursorService,
+            searchIndexer, searchDocumentMapper, applicationEventPublisher, changeStreamConsumer);
         this.restAuthorMockMvc = MockMvcBuilders.standaloneSetup(authorResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
@@ -134,7 +170,7 @@ public class AuthorResourceIT {
         assertThat(testAuthor.getBirthDate()).isEqualTo(DEFAULT_BIRTH_DATE);
 
         // Validate the Author in Elasticsearch
-        verify(mockAuthorSearchRepository, times(1)).save(testAuthor);
+        verify(mockAuthorSearchRepository, times(1)).save(searchDocumentMapper.authorToAuthorDocument(testAuthor, 0));
     }
 
     @Test
@@ -155,7 +191,7 @@ public class AuthorResourceIT {
         assertThat(authorList).hasSize(databaseSizeBeforeCreate);
 
         // Validate the Author in Elasticsearch
-        verify(mockAuthorSearchRepository, times(0)).save(author);
+        verify(mockAuthorSearchRepository, times(0)).save(any(AuthorDocument.class));
     }
 
 
@@ -228,6 +264,28 @@ public class AuthorResourceIT {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void getAuthorBooks() throws Exception {
+        // Initialize the database
+        authorRepository.save(author);
+        bookRepository.deleteAll();
+        Book first = bookRepository.save(BookResourceIT.createEntity().title("AAAAAAAAAA").name(author));
+        Book second = bookRepository.save(BookResourceIT.createEntity().title("BBBBBBBBBB").name(author));
+        bookRepository.save(BookResourceIT.createEntity().title("CCCCCCCCCC"));
+
+        // Get the first page of the books of the author
+        restAuthorMockMvc.perform(get("/api/authors/{id}/books?sort=title,asc&size=1", author.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId())));
+
+        // Get the second page
+        restAuthorMockMvc.perform(get("/api/authors/{id}/books?sort=title,asc&size=1&page=1", author.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(second.getId())));
+    }
+
     @Test
     public void updateAuthor() throws Exception {
         // Initialize the database
@@ -254,7 +312,7 @@ public class AuthorResourceIT {
         assertThat(testAuthor.getBirthDate()).isEqualTo(UPDATED_BIRTH_DATE);
 
         // Validate the Author in Elasticsearch
-        verify(mockAuthorSearchRepository, times(1)).save(testAuthor);
+        verify(mockAuthorSearchRepository, times(1)).save(searchDocumentMapper.authorToAuthorDocument(testAuthor, 0));
     }
 
     @Test
@@ -274,7 +332,7 @@ public class AuthorResourceIT {
         assertThat(authorList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Author in Elasticsearch
-        verify(mockAuthorSearchRepository, times(0)).save(author);
+        verify(mockAuthorSearchRepository, times(0)).save(any(AuthorDocument.class));
     }
 
     @Test
@@ -302,7 +360,7 @@ public class AuthorResourceIT {
         // Initialize the database
         authorRepository.save(author);
         when(mockAuthorSearchRepository.search(queryStringQuery("id:" + author.getId()), PageRequest.of(0, 20)))
-            .thenReturn(new PageImpl<>(Collections.singletonList(author), PageRequest.of(0, 1), 1));
+            .thenReturn(new PageImpl<>(Collections.singletonList(searchDocumentMapper.authorToAuthorDocument(author, 0)), PageRequest.of(0, 1), 1));
         // Search the author
         restAuthorMockMvc.perform(get("/api/_search/authors?query=id:" + author.getId()))
             .andExpect(status().isOk())
@@ -1,9 +1,21 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.JhipsterStarterApp;
+import com.mycompany.myapp.domain.Author;
 import com.mycompany.myapp.domain.Book;
+import com.mycompany.myapp.domain.search.BookDocument;
+import com.mycompany.myapp.repository.AuthorRepository;
 import com.mycompany.myapp.repository.BookRepository;
+import com.mycompany.myapp.repository.SortIndexVerifier;
 import com.mycompany.myapp.repository.search.BookSearchRepository;
+import com.mycompany.myapp.service.BookAuthorNameUpdater;
+import com.mycompany.myapp.service.BookQueryService;
+import com.mycompany.myapp.service.BookSearchService;
+import com.mycompany.myapp.service.BookStatisticsService;
+import com.mycompany.myapp.service.SearchCursorService;
+import com.mycompany.myapp.service.SearchIndexer;
+import com.mycompany.myapp.service.dto.BookFacetsDTO;
+import com.mycompany.myapp.service.mapper.SearchDocumentMapper;
 import com.mycompany.myapp.web.rest.errors.ExceptionTranslator;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +23,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
@@ -64,6 +78,33 @@ public class BookResourceIT {
     @Autowired
     private BookSearchRepository mockBookSearchRepository;
 
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private SortIndexVerifier sortIndexVerifier;
+
+    @Autowired
+    private BookQueryService bookQueryService;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private SearchCursorService searchCursorService;
+
+    @Autowired
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private SearchDocumentMapper searchDocumentMapper;
+
+    @Autowired
+    private BookAuthorNameUpdater bookAuthorNameUpdater;
+
+    @Autowired
+    private BookStatisticsService bookStatisticsService;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -76,6 +117,9 @@ public class BookResourceIT {
     @Autowired
     private Validator validator;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     private MockMvc restBookMockMvc;
 
     private Book book;
@@ -83,7 +127,8 @@ public class BookResourceIT {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final BookResource bookResource = new BookResource(bookRepository, mockBookSearchRepository);
+        final BookResource bookResource = new BookResource(bookRepository, mockBookSearchRepository, sortIndexVerifier, bookQueryService, bookSearchService, searchCursorService,
+            searchIndexer, searchDocumentMapper, bookAuthorNameUpdater, bookStatisticsService);
         this.restBookMockMvc = MockMvcBuilders.standaloneSetup(bookResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
@@ -147,7 +192,20 @@ public class BookResourceIT {
         assertThat(testBook.getPrice()).isEqualTo(DEFAULT_PRICE);
 
         // Validate the Book in Elasticsearch
-        verify(mockBookSearchRepository, times(1)).save(testBook);
+        verify(mockBookSearchRepository, times(1)).save(searchDocumentMapper.bookToBookDocument(testBook));
+    }
+
+    @Test
+    public void createBookEvictsTheCachedFacets() throws Exception {
+        Cache facetsCache = cacheManager.getCache(BookSearchService.BOOK_FACETS_CACHE);
+        facetsCache.put("title:A*", new BookFacetsDTO());
+
+        restBookMockMvc.perform(post("/api/books")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(book)))
+            .andExpect(status().isCreated());
+
+        assertThat(facetsCache.get("title:A*")).isNull();
     }
 
     @Test
@@ -168,7 +226,7 @@ public class BookResourceIT {
         assertThat(bookList).hasSize(databaseSizeBeforeCreate);
 
         // Validate the Book in Elasticsearch
-        verify(mockBookSearchRepository, times(0)).save(book);
+        verify(mockBookSearchRepository, times(0)).save(any(BookDocument.class));
     }
 
 
@@ -256,6 +314,179 @@ public class BookResourceIT {
             .andExpect(jsonPath("$.[*].price").value(hasItem(DEFAULT_PRICE.intValue())));
     }
     
+    @Test
+    public void getAllBooksByTitleIsEqualToSomething() throws Exception {
+        // Initialize the database
+        bookRepository.save(book);
+
+        // Get all the bookList where title equals to DEFAULT_TITLE
+        defaultBookShouldBeFound("title.equals=" + DEFAULT_TITLE);
+
+        // Get all the bookList where title equals to UPDATED_TITLE
+        defaultBookShouldNotBeFound("title.equals=" + UPDATED_TITLE);
+    }
+
+    @Test
+    public void getAllBooksByTitleIsInShouldWork() throws Exception {
+        // Initialize the database
+        bookRepository.save(book);
+
+        // Get all the bookList where title in DEFAULT_TITLE or UPDATED_TITLE
+        defaultBookShouldBeFound("title.in=" + DEFAULT_TITLE + "," + UPDATED_TITLE);
+
+        // Get all the bookList where title equals to UPDATED_TITLE
+        defaultBookShouldNotBeFound("title.in=" + UPDATED_TITLE);
+    }
+
+    @Test
+    public void getAllBooksByTitleContainsSomething() throws Exception {
+        // Initialize the database
+        bookRepository.save(book);
+
+        // Get all the bookList where title contains part of DEFAULT_TITLE, whatever its case
+        defaultBookShouldBeFound("title.contains=" + DEFAULT_TITLE.substring(2).toLowerCase());
+
+        // Get all the bookList where title contains UPDATED_TITLE
+        defaultBookShouldNotBeFound("title.contains=" + UPDATED_TITLE);
+    }
+
+    @Test
+    public void getAllBooksByPublicationDateIsGreaterThanOrEqualToSomething() throws Exception {
+        // Initialize the database
+        bookRepository.save(book);
+
+        // Get all the bookList where publicationDate is greater than or equal to DEFAULT_PUBLICATION_DATE
+        defaultBookShouldBeFound("publicationDate.greaterOrEqualThan=" + DEFAULT_PUBLICATION_DATE);
+
+        // Get all the bookList where publicationDate is greater than or equal to UPDATED_PUBLICATION_DATE
+        defaultBookShouldNotBeFound("publicationDate.greaterOrEqualThan=" + UPDATED_PUBLICATION_DATE);
+    }
+
+    @Test
+    public void getAllBooksByPublicationDateIsBetweenSomething() throws Exception {
+        // Initialize the database
+        bookRepository.save(book);
+
+        // Get all the bookList where publicationDate is between DEFAULT_PUBLICATION_DATE and UPDATED_PUBLICATION_DATE
+        defaultBookShouldBeFound("publicationDate.greaterOrEqualThan=" + DEFAULT_PUBLICATION_DATE +
+            "&publicationDate.lessOrEqualThan=" + UPDATED_PUBLICATION_DATE);
+
+        // Get all the bookList where publicationDate is strictly between DEFAULT_PUBLICATION_DATE and UPDATED_PUBLICATION_DATE
+        defaultBookShouldNotBeFound("publicationDate.greaterThan=" + DEFAULT_PUBLICATION_DATE +
+            "&publicationDate.lessThan=" + UPDATED_PUBLICATION_DATE);
+    }
+
+    @Test
+    public void getAllBooksByPriceIsGreaterThanSomething() throws Exception {
+        // Initialize the database
+        bookRepository.save(book);
+
+        // Get all the bookList where price is greater than a value lower than DEFAULT_PRICE
+        defaultBookShouldBeFound("price.greaterThan=" + DEFAULT_PRICE.subtract(BigDecimal.ONE));
+
+        // Get all the bookList where price is greater than DEFAULT_PRICE
+        defaultBookShouldNotBeFound("price.greaterThan=" + DEFAULT_PRICE);
+    }
+
+    @Test
+    public void getAllBooksByPriceIsLessThanOrEqualToSomething() throws Exception {
+        // Initialize the database
+        bookRepository.save(book);
+
+        // Get all the bookList where price is less than or equal to DEFAULT_PRICE
+        defaultBookShouldBeFound("price.lessOrEqualThan=" + DEFAULT_PRICE);
+
+        // Get all the bookList where price is less than DEFAULT_PRICE
+        defaultBookShouldNotBeFound("price.lessThan=" + DEFAULT_PRICE);
+    }
+
+    @Test
+    public void getAllBooksByAuthorIdIsInShouldWork() throws Exception {
+        // Initialize the database
+        authorRepository.deleteAll();
+        Author author = authorRepository.save(AuthorResourceIT.createEntity());
+        book.setName(author);
+        bookRepository.save(book);
+
+        // Get all the bookList where authorId in the id of the author
+        defaultBookShouldBeFound("authorId.in=" + author.getId());
+
+        // Get all the bookList where authorId equals to another id
+        defaultBookShouldNotBeFound("authorId.equals=" + author.getId() + "0");
+    }
+
+    @Test
+    public void createBookCopiesTheAuthorName() throws Exception {
+        authorRepository.deleteAll();
+        Author author = authorRepository.save(AuthorResourceIT.createEntity());
+        // Only the id of the author is sent with the book
+        Author reference = new Author();
+        reference.setId(author.getId());
+        book.setName(reference);
+
+        restBookMockMvc.perform(post("/api/books")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(book)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.authorName").value(author.getName()));
+
+        List<Book> bookList = bookRepository.findAll();
+        assertThat(bookList.get(bookList.size() - 1).getAuthorName()).isEqualTo(author.getName());
+    }
+
+    @Test
+    public void getAllBooksByAuthorNameIsEqualToSomething() throws Exception {
+        // Initialize the database
+        authorRepository.deleteAll();
+        Author author = authorRepository.save(AuthorResourceIT.createEntity());
+        book.setName(author);
+        book.setAuthorName(author.getName());
+        bookRepository.save(book);
+
+        // Get all the bookList where authorName equals to the name of the author
+        defaultBookShouldBeFound("authorName.equals=" + author.getName());
+
+        // Get all the bookList where authorName equals to another name
+        defaultBookShouldNotBeFound("authorName.equals=" + author.getName() + "0");
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultBookShouldBeFound(String filter) throws Exception {
+        restBookMockMvc.perform(get("/api/books?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(book.getId())))
+            .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
+            .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION)))
+            .andExpect(jsonPath("$.[*].publicationDate").value(hasItem(DEFAULT_PUBLICATION_DATE.toString())))
+            .andExpect(jsonPath("$.[*].price").value(hasItem(DEFAULT_PRICE.intValue())));
+
+        // Check, that the count call also returns 1
+        restBookMockMvc.perform(get("/api/books/count?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(content().string("1"));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultBookShouldNotBeFound(String filter) throws Exception {
+        restBookMockMvc.perform(get("/api/books?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+
+        // Check, that the count call also returns 0
+        restBookMockMvc.perform(get("/api/books/count?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(content().string("0"));
+    }
+
     @Test
     public void getBook() throws Exception {
         // Initialize the database
@@ -309,7 +540,7 @@ public class BookResourceIT {
         assertThat(testBook.getPrice()).isEqualTo(UPDATED_PRICE);
 
         // Validate the Book in Elasticsearch
-        verify(mockBookSearchRepository, times(1)).save(testBook);
+        verify(mockBookSearchRepository, times(1)).save(searchDocumentMapper.bookToBookDocument(testBook));
     }
 
     @Test
@@ -329,7 +560,7 @@ public class BookResourceIT {
         assertThat(bookList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Book in Elasticsearch
-        verify(mockBookSearchRepository, times(0)).save(book);
+        verify(mockBookSearchRepository, times(0)).save(any(BookDocument.class));
     }
 
     @Test
@@ -357,7 +588,7 @@ public class BookResourceIT {
         // Initialize the database
         bookRepository.save(book);
         when(mockBookSearchRepository.search(queryStringQuery("id:" + book.getId()), PageRequest.of(0, 20)))
-            .thenReturn(new PageImpl<>(Collections.singletonList(book), PageRequest.of(0, 1), 1));
+            .thenReturn(new PageImpl<>(Collections.singletonList(searchDocumentMapper.bookToBookDocument(book)), PageRequest.of(0, 1), 1));
         // Search the book
         restBookMockMvc.perform(get("/api/_search/books?query=id:" + book.getId()))
             .andExpect(status().isOk())
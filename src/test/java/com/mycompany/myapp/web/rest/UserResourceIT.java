@@ -7,6 +7,7 @@ import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.repository.search.UserSearchRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.MailService;
+import com.mycompany.myapp.service.SearchCursorService;
 import com.mycompany.myapp.service.UserService;
 import com.mycompany.myapp.service.dto.UserDTO;
 import com.mycompany.myapp.service.mapper.UserMapper;
@@ -18,6 +19,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
@@ -28,8 +31,11 @@ import java.time.Instant;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -76,6 +82,9 @@ public class UserResourceIT {
     @Autowired
     private MailService mailService;
 
+    @Autowired
+    private SearchCursorService searchCursorService;
+
     @Autowired
     private UserService userService;
 
@@ -102,7 +111,7 @@ public class UserResourceIT {
     public void setup() {
         cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
         cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
-        UserResource userResource = new UserResource(userService, userRepository, mailService, mockUserSearchRepository);
+        UserResource userResource = new UserResource(userService, userRepository, mailService, mockUserSearchRepository, searchCursorService);
 
         this.restUserMockMvc = MockMvcBuilders.standaloneSetup(userResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
@@ -301,6 +310,33 @@ public class UserResourceIT {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void searchUser() throws Exception {
+        // Initialize the database
+        userRepository.save(user);
+        when(mockUserSearchRepository.search(queryStringQuery("login:" + user.getLogin()), PageRequest.of(0, 20)))
+            .thenReturn(new PageImpl<>(Collections.singletonList(user), PageRequest.of(0, 20), 1));
+
+        // Search the user
+        restUserMockMvc.perform(get("/api/_search/users?query=login:" + user.getLogin()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[*].login").value(hasItem(user.getLogin())))
+            .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)));
+    }
+
+    @Test
+    public void searchUserCapsThePageSize() throws Exception {
+        when(mockUserSearchRepository.search(queryStringQuery("*"), PageRequest.of(0, SearchCursorService.MAX_PAGE_SIZE)))
+            .thenReturn(new PageImpl<>(Collections.emptyList(), PageRequest.of(0, SearchCursorService.MAX_PAGE_SIZE), 0));
+
+        restUserMockMvc.perform(get("/api/_search/users?query=*&size=" + (SearchCursorService.MAX_PAGE_SIZE + 1)))
+            .andExpect(status().isOk());
+
+        verify(mockUserSearchRepository).search(queryStringQuery("*"), PageRequest.of(0, SearchCursorService.MAX_PAGE_SIZE));
+    }
+
     @Test
     public void updateUser() throws Exception {
         // Initialize the database